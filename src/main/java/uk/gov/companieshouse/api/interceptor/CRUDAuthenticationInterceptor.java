@@ -11,13 +11,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpMethod;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.HandlerInterceptor;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
 import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
 import uk.gov.companieshouse.api.util.security.Permission;
 import uk.gov.companieshouse.api.util.security.SecurityConstants;
 import uk.gov.companieshouse.api.util.security.TokenPermissions;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
 
 /**
  * Checks the request contains the relevant token permission value based on the
@@ -27,12 +26,16 @@ import uk.gov.companieshouse.logging.LoggerFactory;
  */
 public class CRUDAuthenticationInterceptor implements HandlerInterceptor {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(String.valueOf(CRUDAuthenticationInterceptor.class));
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(CRUDAuthenticationInterceptor.class));
 
     private final Permission.Key permissionKey;
     private final boolean ignoreAPIKeyRequests;
     private final Set<String> ignoredHttpMethods;
 
+    /* Value required for each standard HTTP method by HttpMethodIndex, null when the
+    method is ignored */
+    private final String[] requiredValues;
+
     /**
      *
      * @param permissionKey The expected permission key
@@ -53,29 +56,36 @@ public class CRUDAuthenticationInterceptor implements HandlerInterceptor {
         this.permissionKey = permissionKey;
         this.ignoreAPIKeyRequests  = ignoreAPIKeyRequests;
         this.ignoredHttpMethods = new HashSet<>(Arrays.asList(ignoredHttpMethods));
+        this.requiredValues = new String[HttpMethodIndex.SIZE];
+        for (int index = 0; index < HttpMethodIndex.SIZE; index++) {
+            final String method = HttpMethodIndex.name(index);
+            if (!this.ignoredHttpMethods.contains(method)) {
+                requiredValues[index] = getValue(method);
+            }
+        }
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws InvalidTokenPermissionException{
-        if (ignoreRequest(request)) {
+        final String permissionValue = getRequiredValue(request.getMethod());
+        if (permissionValue == null || ignoreAPIKeyRequest(request)) {
             return true;
         }
 
         final TokenPermissions tokenPermissions = getTokenPermissions(request);
-
-        final String permissionValue = getValue(request);
         final boolean authorised = tokenPermissions.hasPermission(permissionKey, permissionValue);
 
-        final Map<String, Object> debugMap = new HashMap<>();
-        debugMap.put("request_method", request.getMethod());
-        debugMap.put("authorised", authorised);
-        debugMap.put("expected_permission", permissionKey + "=" + permissionValue);
-
         if (!authorised) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         }
 
-        LOGGER.debugRequest(request, "CRUDAuthenticationInterceptor handled request", debugMap);
+        LOGGER.debugRequest(request, "CRUDAuthenticationInterceptor handled request", () -> {
+            final Map<String, Object> debugMap = new HashMap<>();
+            debugMap.put("request_method", request.getMethod());
+            debugMap.put("authorised", authorised);
+            debugMap.put("expected_permission", permissionKey + "=" + permissionValue);
+            return debugMap;
+        });
         return authorised;
     }
 
@@ -89,8 +99,32 @@ public class CRUDAuthenticationInterceptor implements HandlerInterceptor {
     }
     
     private boolean ignoreRequest(HttpServletRequest request) {
-        return ignoredHttpMethods.contains(request.getMethod()) ||
-                (this.ignoreAPIKeyRequests && SecurityConstants.API_KEY_IDENTITY_TYPE.equals(AuthorisationUtil.getAuthorisedIdentityType(request)));
+        return getRequiredValue(request.getMethod()) == null || ignoreAPIKeyRequest(request);
+    }
+
+    Permission.Key getPermissionKey() {
+        return permissionKey;
+    }
+
+    boolean isIgnoreAPIKeyRequests() {
+        return ignoreAPIKeyRequests;
+    }
+
+    private boolean ignoreAPIKeyRequest(HttpServletRequest request) {
+        return this.ignoreAPIKeyRequests && SecurityConstants.API_KEY_IDENTITY_TYPE.equals(AuthorisationUtil.getAuthorisedIdentityType(request));
+    }
+
+    /**
+     * @param method The HTTP method of the request
+     * @return The permission value required, a table read for the standard methods. Null
+     *         if the method is ignored
+     */
+    String getRequiredValue(String method) {
+        final int index = HttpMethodIndex.of(method);
+        if (index != HttpMethodIndex.OTHER) {
+            return requiredValues[index];
+        }
+        return ignoredHttpMethods.contains(method) ? null : getValue(method);
     }
     /**
      * Get the token permissions object from the request or create one (and store it
@@ -106,8 +140,7 @@ public class CRUDAuthenticationInterceptor implements HandlerInterceptor {
             try {
                 TokenPermissions tp = InterceptorHelper.readTokenPermissions(request);
                 InterceptorHelper.storeTokenPermissionsInRequest(tp, request);
-                Map<String, Object> loggedData = new HashMap<>();
-                LOGGER.debugRequest(request, "Create TokenPermissions and store it in request", loggedData);
+                LOGGER.debugRequest(request, "Create TokenPermissions and store it in request");
                 return tp;
             } catch (InvalidTokenPermissionException e) {
                 // Wrap into a runtime exception to fit the Supplier interface
@@ -120,8 +153,7 @@ public class CRUDAuthenticationInterceptor implements HandlerInterceptor {
         return AuthorisationUtil.getTokenPermissions(request);
     }
 
-    private String getValue(HttpServletRequest request) {
-        String method = request.getMethod();
+    static String getValue(String method) {
         if (HttpMethod.PUT.matches(method) || HttpMethod.PATCH.matches(method)) {
             return Permission.Value.UPDATE;
         }
@@ -2,47 +2,124 @@ package uk.gov.companieshouse.api.interceptor;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.HandlerInterceptor;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 
 /**
  * Intercepts incoming HTTP requests to validate application authentication tokens.
  * Uses {@link CisAppTokenValidator} to ensure that requests contain a valid token
  * with expected claims (tenant ID and client IDs). If validation fails, sets the response
- * status to 401 Unauthorized and prevents further request processing.
+ * status to 401 Unauthorized and prevents further request processing. When debug logging is
+ * enabled, the reason the token was rejected is logged.
+ * <p>
+ * When created as a bean, the signing keys are loaded during startup, before the first
+ * request. If they cannot be loaded then, the first request loads them instead. Loading the
+ * Azure AD keys is a blocking HTTP fetch, with connect and read timeouts of
+ * {@link JwksSource#HTTP_TIMEOUT_MILLIS} each, so it can delay the start of the application
+ * context by up to ten seconds when Azure AD is unreachable.
+ * <p>
+ * Interceptors created with {@code new}, for instance in
+ * {@code WebMvcConfigurer#addInterceptors}, are not beans and do not load the keys at
+ * startup. Call {@link #prewarm()} on them, or {@link JwksRegistry#prewarm(String)} for the
+ * tenant, to do so; otherwise the first request loads the keys.
+ * <p>
+ * Interceptors created from a tenant and client ids share the keys of the tenant, so
+ * registering several of them for different client ids loads the keys once. Unless a
+ * {@link JwksRegistry} is given, they use {@link JwksRegistry#shared()}, which lives as long
+ * as the process and keeps the keys of every tenant asked for. Give each application context
+ * or test its own registry to keep their keys apart.
  * <p>
  * Intended for use in Spring Boot applications as a {@link HandlerInterceptor}.
  */
-public class CisAppAuthenticationInterceptor implements HandlerInterceptor {
-
-    private final Logger logger;
+public class CisAppAuthenticationInterceptor implements HandlerInterceptor, InitializingBean {
 
-    private final String tenantId;
-    private final String logicAppClientId;
-    private final String cisAppClientId;
+    private final SecurityLogger logger;
 
     private final CisAppTokenValidator cisAppTokenValidator;
 
+    /**
+     * Create an interceptor whose validator shares the key set of the tenant with the other
+     * interceptors of the process, through {@link JwksRegistry#shared()}
+     */
     public CisAppAuthenticationInterceptor(String tenantId, String logicAppClientId, String cisAppClientId) {
-        this.tenantId = tenantId;
-        this.logicAppClientId = logicAppClientId;
-        this.cisAppClientId = cisAppClientId;
-        this.cisAppTokenValidator = applicationTokenValidator();
-        logger = LoggerFactory.getLogger(String.valueOf(CisAppAuthenticationInterceptor.class));
+        this(tenantId, logicAppClientId, cisAppClientId, JwksRegistry.shared());
+    }
+
+    /**
+     * Create an interceptor whose validator shares the key set of the tenant with the other
+     * users of the given registry
+     *
+     * @param jwksRegistry The registry holding the key set of the tenant
+     */
+    public CisAppAuthenticationInterceptor(String tenantId, String logicAppClientId, String cisAppClientId,
+            JwksRegistry jwksRegistry) {
+        this(CisAppTokenValidator.builder(tenantId, logicAppClientId, cisAppClientId)
+                .jwksRegistry(jwksRegistry)
+                .build());
+    }
+
+    /**
+     * @param cisAppTokenValidator The validator of the application tokens, for instance one
+     *                             built with a {@link JwksSource}
+     */
+    public CisAppAuthenticationInterceptor(CisAppTokenValidator cisAppTokenValidator) {
+        this.cisAppTokenValidator = cisAppTokenValidator;
+        logger = SecurityLogger.getLogger(String.valueOf(CisAppAuthenticationInterceptor.class));
     }
 
+    /**
+     * @return The validator of this interceptor
+     * @deprecated This class is not a {@code @Configuration}, so the validator is only
+     *             registered as a bean when the interceptor itself is one, and is not proxied.
+     *             Declare the {@link CisAppTokenValidator} bean in a configuration class and
+     *             pass it to {@link #CisAppAuthenticationInterceptor(CisAppTokenValidator)}
+     *             instead
+     */
+    @Deprecated(forRemoval = true)
     @Bean
     public CisAppTokenValidator applicationTokenValidator() {
-        return new CisAppTokenValidator(tenantId, logicAppClientId, cisAppClientId);
+        return cisAppTokenValidator;
+    }
+
+    /**
+     * Pre-warm the validator when the interceptor is created as a bean
+     *
+     * @see #prewarm()
+     */
+    @Override
+    public void afterPropertiesSet() {
+        prewarm();
+    }
+
+    /**
+     * Pre-warm the validator, loading the signing keys before the first request. This blocks
+     * while the keys are fetched. A failure is logged, and the first request loads the keys
+     * instead
+     */
+    public void prewarm() {
+        try {
+            cisAppTokenValidator.prewarm();
+        } catch (Exception e) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("error", String.valueOf(e));
+            logger.error("Failed to pre-warm the application token keys, they will be loaded on the first request", data);
+        }
     }
 
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
         if (!cisAppTokenValidator.hasValidApplicationToken(request)) {
-            logger.debugRequest(request, "No valid application token supplied", null);
+            // The token is only validated again for its reason when debug logging is enabled
+            logger.debugRequest(request, "No valid application token supplied", () -> {
+                final Map<String, Object> debugMap = new HashMap<>();
+                debugMap.put("reason", String.valueOf(cisAppTokenValidator.validateApplicationToken(request)));
+                return debugMap;
+            });
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return false;
         }
@@ -1,22 +1,27 @@
 package uk.gov.companieshouse.api.interceptor;
 
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
-import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.io.IOException;
-import java.net.URI;
+import java.lang.reflect.Method;
 import java.net.URISyntaxException;
 import java.security.interfaces.RSAPublicKey;
 import java.text.ParseException;
+import java.time.Duration;
+import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 
 /**
  * Validates application authentication tokens in incoming HTTP requests.
@@ -24,30 +29,140 @@ import java.util.concurrent.atomic.AtomicReference;
  * such as tenant ID and client IDs are present and correct.
  * Used by {@link CisAppAuthenticationInterceptor} to enforce application-level security.
  * <p>
+ * Tokens that pass validation are remembered until they expire, so a token presented
+ * again is accepted without verifying its signature again. A ready-to-use signature
+ * verifier is built for each key of the key set when it is loaded, so the signature of a
+ * new token is verified after a single lookup by key id.
+ * <p>
+ * The key set is refreshed in the background shortly before it is an hour old. Requests
+ * keep being served from the last key set loaded while a refresh is in flight or failing,
+ * until it is older than the maximum staleness, after which the next request loads the
+ * key set itself.
+ * <p>
+ * A token signed with a key id missing from the key set makes the key set reload, at most
+ * once per refresh interval for unknown keys. Key ids still missing after that are
+ * remembered for the interval, so tokens using them are rejected without a reload.
+ * <p>
+ * The keys are loaded from the Azure AD tenant unless another {@link JwksSource} is given.
+ * Call {@link #prewarm()} at startup to load them before the first request. Validators
+ * built with a {@link JwksRegistry} share the key set of their tenant with the other
+ * validators of the registry, instead of holding their own.
+ * <p>
+ * The signature of a token is verified before its claims by default. With
+ * {@link Builder#claimsFirst(boolean)} the claims are checked first, so expired tokens and
+ * tokens for another tenant or application are rejected without an RSA verification.
+ * <p>
+ * {@link #validate(String)} reports why a token is not valid as a {@link ValidationResult}.
+ * It looks the key up and checks the claims directly, reading the clock once and without
+ * throwing for an unknown key id. Subclasses overriding the protected methods
+ * {@link #isInvalidSignature(SignedJWT)}, {@link #getPublicKeyFromAzureADWithCache(String)}
+ * or {@link #verifyTokenClaimSet(JWTClaimsSet)} have tokens checked through them instead,
+ * so the overrides change what is accepted, and the reason is taken from how they fail.
+ * <p>
  * Intended for use in Spring Boot applications to verify application tokens.
  */
 
 public class CisAppTokenValidator {
 
-    private static final String MS_LOGIN_BASE_URL = "https://login.microsoftonline.com/";
     private static final String TENANT_ID_CLAIM_NAME = "tid";
     private static final String APP_ID_CLAIM_NAME = "appid";
     private static final String AUTH_ACCESS_TOKEN_HEADER_KEY = "x-oauth-access-token";
-    private static final long CACHE_TTL_MILLIS = (60 * 60 * 1000); // 1 hour
-    private volatile long jwkSetCacheTimestamp = 0;
+
+    /**
+     * Default maximum age of a key set that is still used while it cannot be refreshed
+     */
+    public static final Duration DEFAULT_MAX_STALENESS = Duration.ofHours(6);
+
+    /**
+     * Default minimum age of a key set before an unknown key id makes it reload
+     */
+    public static final Duration DEFAULT_UNKNOWN_KEY_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+    /* The protected methods that make validate() check tokens through them when overridden */
+    private static final Set<String> HOOKS =
+            Set.of("isInvalidSignature", "getPublicKeyFromAzureADWithCache", "verifyTokenClaimSet");
+
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(CisAppTokenValidator.class));
 
     private final String tenantId;
     private final String logicAppClientId;
     private final String cisAppClientId;
-    private final String keysUrl;
-    
+    private final String expectedAudience;
+    private final String expectedIssuer;
+    private final JwksSource jwksSource;
+    private final boolean claimsFirst;
+    private final boolean hooksOverridden;
+
+    /* The key set of the tenant, shared with the other validators of the registry if one is given */
+    final JwksCache jwksCache;
+
+    /**
+     * The last key set this validator loaded or verified a token with.
+     *
+     * @deprecated The key set is held by the key set cache of the validator, or of its
+     *             {@link JwksRegistry}. This reference only mirrors it, and setting it has no
+     *             effect. It will be removed in the next major version.
+     */
+    @Deprecated(forRemoval = true)
     protected final AtomicReference<JWKSet> jwkSetCache = new AtomicReference<>();
 
+    private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(VerifiedTokenCache.DEFAULT_MAXIMUM_SIZE);
+
     public CisAppTokenValidator(String tenantId, String logicAppClientId, String cisAppClientId) {
-        this.tenantId = tenantId;
-        this.logicAppClientId = logicAppClientId;
-        this.cisAppClientId = cisAppClientId;
-        this.keysUrl = MS_LOGIN_BASE_URL + tenantId + "/discovery/v2.0/keys";
+        this(builder(tenantId, logicAppClientId, cisAppClientId));
+    }
+
+    protected CisAppTokenValidator(Builder builder) {
+        this.tenantId = builder.tenantId;
+        this.logicAppClientId = builder.logicAppClientId;
+        this.cisAppClientId = builder.cisAppClientId;
+        this.expectedAudience = "api://" + cisAppClientId;
+        this.expectedIssuer = "https://sts.windows.net/" + tenantId + "/";
+        if (builder.jwksRegistry != null) {
+            this.jwksSource = builder.jwksRegistry.source(tenantId);
+            this.jwksCache = builder.jwksRegistry.keySet(tenantId);
+        } else {
+            this.jwksSource = builder.jwksSource != null ? builder.jwksSource : JwksSource.azureAd(tenantId);
+            this.jwksCache = new JwksCache(tenantId,
+                    builder.maxStaleness != null ? builder.maxStaleness : DEFAULT_MAX_STALENESS,
+                    builder.unknownKeyRefreshInterval != null
+                            ? builder.unknownKeyRefreshInterval : DEFAULT_UNKNOWN_KEY_REFRESH_INTERVAL,
+                    builder.refreshExecutor);
+        }
+        this.claimsFirst = builder.claimsFirst;
+        this.hooksOverridden = overridesHooks(getClass());
+    }
+
+    /**
+     * @return True if a subclass between the given class and this one declares one of the
+     *         {@link #HOOKS}
+     */
+    private static boolean overridesHooks(Class<?> type) {
+        for (Class<?> c = type; c != CisAppTokenValidator.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (HOOKS.contains(method.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return True if tokens are checked through the protected methods overridden by a subclass
+     */
+    boolean usesHooks() {
+        return hooksOverridden;
+    }
+
+    /**
+     * @param tenantId         The Azure AD tenant issuing the tokens
+     * @param logicAppClientId The client id of the calling application
+     * @param cisAppClientId   The client id the tokens are issued for
+     * @return A builder of a validator with the default settings
+     */
+    public static Builder builder(String tenantId, String logicAppClientId, String cisAppClientId) {
+        return new Builder(tenantId, logicAppClientId, cisAppClientId);
     }
 
     public boolean hasValidApplicationToken(HttpServletRequest request) {
@@ -58,75 +173,285 @@ public class CisAppTokenValidator {
         return validateToken(token);
     }
 
+    /**
+     * @param request The HTTP request
+     * @return The result of validating the application token of the request
+     */
+    public ValidationResult validateApplicationToken(HttpServletRequest request) {
+        return validate(extractTokenFromRequest(request));
+    }
+
     private String extractTokenFromRequest(HttpServletRequest request) {
         return request.getHeader(AUTH_ACCESS_TOKEN_HEADER_KEY);
     }
 
     protected boolean validateToken(String token) {
+        return validate(token).isValid();
+    }
+
+    /**
+     * Validate the signature and the claims of an application token, in the order set by
+     * {@link Builder#claimsFirst(boolean)}. Subclasses overriding the protected hooks have
+     * the token checked through {@link #isInvalidSignature(SignedJWT)} and
+     * {@link #verifyTokenClaimSet(JWTClaimsSet)}
+     *
+     * @param token The token, may be null
+     * @return {@link ValidationResult#VALID}, or the first reason the token is not valid
+     */
+    public ValidationResult validate(String token) {
+        if (token == null || token.isEmpty()) {
+            return ValidationResult.MISSING_TOKEN;
+        }
+        long now = System.currentTimeMillis();
+        VerifiedTokenCache.TokenHash tokenHash = VerifiedTokenCache.TokenHash.of(token);
+        if (verifiedTokens.isVerified(tokenHash, now)) {
+            return ValidationResult.VALID;
+        }
+        if (!isCompactSerialization(token)) {
+            return ValidationResult.BAD_FORMAT;
+        }
+
+        SignedJWT signedJwt;
+        JWTClaimsSet claims;
+        try {
+            signedJwt = SignedJWT.parse(token);
+            claims = signedJwt.getJWTClaimsSet();
+        } catch (ParseException e) {
+            return ValidationResult.BAD_FORMAT;
+        }
+
+        ValidationResult result;
+        if (claimsFirst) {
+            // The claims are not trusted until the signature has been verified too
+            result = hooksOverridden ? checkTokenClaimSet(claims, now) : checkClaims(claims, now);
+            if (result.isValid()) {
+                result = hooksOverridden ? checkSignature(signedJwt) : checkSignature(signedJwt, now);
+            }
+        } else {
+            result = hooksOverridden ? checkSignature(signedJwt) : checkSignature(signedJwt, now);
+            if (result.isValid()) {
+                result = hooksOverridden ? checkTokenClaimSet(claims, now) : checkClaims(claims, now);
+            }
+        }
 
-      try {
-            SignedJWT signedJwt = SignedJWT.parse(token);
+        Date expirationTime = claims.getExpirationTime();
+        if (result.isValid() && expirationTime != null) {
+            verifiedTokens.put(tokenHash, expirationTime.getTime());
+        }
+        return result;
+    }
 
-            if (isInvalidSignature(signedJwt)) {
+    /**
+     * @return True if the token is three base64url segments separated by dots, so tokens
+     *         that cannot be a signed JWT are rejected before they are decoded
+     */
+    static boolean isCompactSerialization(String token) {
+        int dots = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                dots++;
+            } else if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_')) {
                 return false;
             }
+        }
+        return dots == 2;
+    }
 
-            JWTClaimsSet claims = signedJwt.getJWTClaimsSet();
-            return verifyTokenClaimSet(claims);
+    /**
+     * @param signedJwt The token
+     * @return {@link ValidationResult#VALID} if {@link #isInvalidSignature(SignedJWT)} accepts
+     *         the signature, otherwise the reason taken from its result or exception
+     */
+    ValidationResult checkSignature(SignedJWT signedJwt) {
+        try {
+            return isInvalidSignature(signedJwt) ? ValidationResult.BAD_SIGNATURE : ValidationResult.VALID;
+        } catch (IllegalArgumentException e) {
+            return ValidationResult.UNKNOWN_KEY_ID;
+        } catch (IOException | URISyntaxException | ParseException e) {
+            LOGGER.debug(() -> "Failed to load the application token key set: " + e);
+            return ValidationResult.KEYS_UNAVAILABLE;
+        } catch (JOSEException | RuntimeException e) {
+            return ValidationResult.BAD_SIGNATURE;
+        }
+    }
 
-        } catch (Exception e) {
-            return false;
+    /**
+     * Verify the signature with the verifier of its key id, without going through the
+     * protected hooks, so an unknown key id is reported without an exception
+     *
+     * @param signedJwt The token
+     * @param now       The current time in milliseconds
+     * @return {@link ValidationResult#VALID} if the signature matches the key of the token,
+     *         otherwise the reason it does not
+     */
+    private ValidationResult checkSignature(SignedJWT signedJwt, long now) {
+        JWSVerifier verifier;
+        try {
+            verifier = getVerifier(signedJwt.getHeader().getKeyID(), now);
+        } catch (IOException | ParseException e) {
+            LOGGER.debug(() -> "Failed to load the application token key set: " + e);
+            return ValidationResult.KEYS_UNAVAILABLE;
+        } catch (JOSEException | RuntimeException e) {
+            return ValidationResult.BAD_SIGNATURE;
+        }
+        if (!(verifier instanceof RSASSAVerifier)) {
+            return ValidationResult.UNKNOWN_KEY_ID;
+        }
+        try {
+            return isInvalidSignature(signedJwt, verifier) ? ValidationResult.BAD_SIGNATURE : ValidationResult.VALID;
+        } catch (JOSEException | RuntimeException e) {
+            return ValidationResult.BAD_SIGNATURE;
         }
     }
 
+    /**
+     * @param claims The claims of the token
+     * @param now    The current time in milliseconds
+     * @return {@link ValidationResult#VALID} if {@link #verifyTokenClaimSet(JWTClaimsSet)}
+     *         accepts the claims, otherwise the first claim found not to be valid
+     */
+    private ValidationResult checkTokenClaimSet(JWTClaimsSet claims, long now) {
+        try {
+            if (verifyTokenClaimSet(claims)) {
+                return ValidationResult.VALID;
+            }
+        } catch (RuntimeException e) {
+            // A claim the check relies on is missing, such as the expiration time
+        }
+        try {
+            ValidationResult result = checkClaims(claims, now);
+            return result.isValid() ? ValidationResult.INVALID_CLAIMS : result;
+        } catch (RuntimeException e) {
+            return ValidationResult.INVALID_CLAIMS;
+        }
+    }
+
+    /**
+     * @param claims The claims of the token
+     * @param now    The current time in milliseconds
+     * @return {@link ValidationResult#VALID} if the claims are for this tenant and application,
+     *         and the token is in its validity period
+     */
+    ValidationResult checkClaims(JWTClaimsSet claims, long now) {
+        if (!verifyAudience(cisAppClientId, claims.getAudience())) {
+            return ValidationResult.WRONG_AUDIENCE;
+        }
+        if (!verifyAppId(logicAppClientId, claims.getClaim(APP_ID_CLAIM_NAME))) {
+            return ValidationResult.WRONG_APP_ID;
+        }
+        if (!verifyIssuer(claims.getIssuer())) {
+            return ValidationResult.WRONG_ISSUER;
+        }
+        if (!verifyTenant(claims.getClaim(TENANT_ID_CLAIM_NAME))) {
+            return ValidationResult.WRONG_TENANT;
+        }
+        Date expirationTime = claims.getExpirationTime();
+        if (expirationTime == null || expirationTime.getTime() <= now) {
+            return ValidationResult.EXPIRED;
+        }
+        Date notBeforeTime = claims.getNotBeforeTime();
+        if (notBeforeTime == null || notBeforeTime.getTime() >= now) {
+            return ValidationResult.NOT_YET_VALID;
+        }
+        return ValidationResult.VALID;
+    }
+
+    /**
+     * Verify the signature of the token with the key returned by
+     * {@link #getPublicKeyFromAzureADWithCache(String)}. The verifier built for the key when the
+     * key set was loaded is used, unless the key comes from elsewhere
+     *
+     * @param signedJwt The token
+     * @return True if the signature does not match the key, or uses an algorithm the key does
+     *         not support
+     * @throws IllegalArgumentException If the key set has no RSA key for the key id of the token
+     */
     protected boolean isInvalidSignature(SignedJWT signedJwt) throws IOException, URISyntaxException, ParseException, JOSEException {
-        String keyId = signedJwt.getHeader().getKeyID();
+        JWSHeader header = signedJwt.getHeader();
+        String keyId = header.getKeyID();
         RSAPublicKey publicKey = getPublicKeyFromAzureADWithCache(keyId);
-        JWSVerifier verifier = new RSASSAVerifier(publicKey);
-        return !signedJwt.verify(verifier);
+        JWSVerifier verifier = jwksCache.snapshot().verifiers().get(keyId);
+        if (!(verifier instanceof RSASSAVerifier rsaVerifier && rsaVerifier.getPublicKey() == publicKey)) {
+            verifier = new RSASSAVerifier(publicKey);
+        }
+        return isInvalidSignature(signedJwt, verifier);
     }
 
-    protected RSAPublicKey getPublicKeyFromAzureADWithCache(String keyId) throws IOException, URISyntaxException, ParseException, JOSEException {
-        long now = System.currentTimeMillis();
-
-        JWKSet jwkSet = jwkSetCache.get();
-        boolean cacheExpired = (now - jwkSetCacheTimestamp) > CACHE_TTL_MILLIS;
-        JWK jwk = (jwkSet != null && !cacheExpired) ? jwkSet.getKeyByKeyId(keyId) : null;
-
-        if (jwk == null) {
-            synchronized (jwkSetCache) {
-                jwkSet = jwkSetCache.get();
-                cacheExpired = (now - jwkSetCacheTimestamp) > CACHE_TTL_MILLIS;
-                jwk = (jwkSet != null && !cacheExpired) ? jwkSet.getKeyByKeyId(keyId) : null;
-                if (jwk == null) {
-                    jwkSet = JWKSet.load(new URI(keysUrl).toURL());
-                    jwkSetCache.set(jwkSet);
-                    jwkSetCacheTimestamp = System.currentTimeMillis();
-                    jwk = jwkSet.getKeyByKeyId(keyId);
-                }
-            }
+    /**
+     * @return True if the signature does not match the verifier, or uses an algorithm it does
+     *         not support
+     */
+    private static boolean isInvalidSignature(SignedJWT signedJwt, JWSVerifier verifier) throws JOSEException {
+        JWSAlgorithm algorithm = signedJwt.getHeader().getAlgorithm();
+        if (algorithm == null || !verifier.supportedJWSAlgorithms().contains(algorithm)) {
+            return true;
         }
+        return !signedJwt.verify(verifier);
+    }
 
-        if (!(jwk instanceof RSAKey)) {
+    /**
+     * Get the verifier for the given key from the key set, which is loaded through
+     * {@link #loadJwkSet()} when needed
+     *
+     * @param keyId The key id of the token
+     * @param now   The current time in milliseconds
+     * @return The verifier, or null if the key is unknown
+     */
+    JWSVerifier getVerifier(String keyId, long now) throws IOException, ParseException, JOSEException {
+        JWSVerifier verifier = jwksCache.getVerifier(keyId, now, this::loadJwkSet);
+        mirrorJwkSet();
+        return verifier;
+    }
+
+    protected RSAPublicKey getPublicKeyFromAzureADWithCache(String keyId) throws IOException, URISyntaxException, ParseException, JOSEException {
+        JWSVerifier verifier = getVerifier(keyId, System.currentTimeMillis());
+        if (!(verifier instanceof RSASSAVerifier rsaVerifier)) {
             throw new IllegalArgumentException("RSA key not found for keyId: " + keyId);
         }
 
-        return ((RSAKey) jwk).toRSAPublicKey();
+        return rsaVerifier.getPublicKey();
+    }
+
+    protected JWKSet loadJwkSet() throws IOException, ParseException {
+        return jwksSource.load();
     }
 
+    /**
+     * Load the key set and build its verifiers now, rather than on the first request. This
+     * blocks while the key set is fetched, for up to {@link JwksSource#HTTP_TIMEOUT_MILLIS} to
+     * connect and as long again to read from Azure AD
+     *
+     * @throws IOException    If the key set cannot be read
+     * @throws ParseException If the key set is not valid
+     */
+    public void prewarm() throws IOException, ParseException {
+        jwksCache.load(this::loadJwkSet);
+        mirrorJwkSet();
+    }
+
+    @SuppressWarnings("removal")
+    private void mirrorJwkSet() {
+        JWKSet current = jwksCache.snapshot().jwkSet();
+        if (current != null && jwkSetCache.get() != current) {
+            jwkSetCache.set(current);
+        }
+    }
 
     protected boolean verifyTokenClaimSet(JWTClaimsSet claims) {
+        long now = System.currentTimeMillis();
         return verifyAudience(cisAppClientId, claims.getAudience())
                 && verifyAppId(logicAppClientId, claims.getClaim(APP_ID_CLAIM_NAME))
                 && verifyIssuer(claims.getIssuer())
                 && verifyTenant(claims.getClaim(TENANT_ID_CLAIM_NAME))
-                && claims.getExpirationTime().after(new java.util.Date())
-                && claims.getNotBeforeTime().before(new java.util.Date());
+                && claims.getExpirationTime().getTime() > now
+                && claims.getNotBeforeTime().getTime() < now;
     }
 
     public boolean verifyAudience (String expectedClientId, List<String> claimsAudience) {
-        String expectedAudience = "api://" + expectedClientId;
-        return claimsAudience.contains(expectedAudience);
+        String audience = cisAppClientId.equals(expectedClientId) ? expectedAudience : "api://" + expectedClientId;
+        return claimsAudience.contains(audience);
     }
 
     public boolean verifyAppId (String expectedClientId, Object claimsAppId) {
@@ -134,7 +459,6 @@ public class CisAppTokenValidator {
     }
 
     protected boolean verifyIssuer (String claimsIssuer) {
-        String expectedIssuer = "https://sts.windows.net/" + tenantId + "/";
         return expectedIssuer.equals(claimsIssuer);
     }
 
@@ -142,4 +466,128 @@ public class CisAppTokenValidator {
         return tenantId.equals(claimsTenantId);
     }
 
-}
\ No newline at end of file
+    /**
+     * The result of validating an application token
+     */
+    public enum ValidationResult {
+        /** The token is valid */
+        VALID,
+        /** No token was supplied */
+        MISSING_TOKEN,
+        /** The token is not a signed JWT */
+        BAD_FORMAT,
+        /** The token is signed with a key that is not in the key set */
+        UNKNOWN_KEY_ID,
+        /** The key set could not be loaded */
+        KEYS_UNAVAILABLE,
+        /** The signature of the token does not match its key */
+        BAD_SIGNATURE,
+        /** The token is not issued for the CIS application */
+        WRONG_AUDIENCE,
+        /** The token is not issued to the calling application */
+        WRONG_APP_ID,
+        /** The token is not issued by the tenant */
+        WRONG_ISSUER,
+        /** The token is for another tenant */
+        WRONG_TENANT,
+        /** The token has expired, or has no expiration time */
+        EXPIRED,
+        /** The token is not valid yet, or has no not before time */
+        NOT_YET_VALID,
+        /** The claims of the token were rejected by a subclass */
+        INVALID_CLAIMS;
+
+        public boolean isValid() {
+            return this == VALID;
+        }
+    }
+
+    public static class Builder {
+        private final String tenantId;
+        private final String logicAppClientId;
+        private final String cisAppClientId;
+        private Duration maxStaleness;
+        private Duration unknownKeyRefreshInterval;
+        private Executor refreshExecutor = JwksCache.REFRESH_EXECUTOR;
+        private JwksSource jwksSource;
+        private JwksRegistry jwksRegistry;
+        private boolean claimsFirst;
+
+        private Builder(String tenantId, String logicAppClientId, String cisAppClientId) {
+            this.tenantId = tenantId;
+            this.logicAppClientId = logicAppClientId;
+            this.cisAppClientId = cisAppClientId;
+        }
+
+        /**
+         * @param maxStaleness The maximum age of a key set that is still used while it cannot
+         *                     be refreshed, at least an hour
+         * @return This builder
+         */
+        public Builder maxStaleness(Duration maxStaleness) {
+            this.maxStaleness = JwksCache.checkMaxStaleness(maxStaleness);
+            return this;
+        }
+
+        /**
+         * @param unknownKeyRefreshInterval The minimum age of a key set before a token signed
+         *                                  with an unknown key id makes it reload, and how long
+         *                                  key ids still missing after a reload are remembered
+         * @return This builder
+         */
+        public Builder unknownKeyRefreshInterval(Duration unknownKeyRefreshInterval) {
+            this.unknownKeyRefreshInterval = JwksCache.checkUnknownKeyRefreshInterval(unknownKeyRefreshInterval);
+            return this;
+        }
+
+        /**
+         * @param jwksSource The source of the key set, the Azure AD keys of the tenant by default
+         * @return This builder
+         */
+        public Builder jwksSource(JwksSource jwksSource) {
+            this.jwksSource = jwksSource;
+            return this;
+        }
+
+        /**
+         * @param jwksRegistry The registry to share the key set of the tenant through, with
+         *                     the key set settings of the registry. The validator holds its own
+         *                     key set by default
+         * @return This builder
+         */
+        public Builder jwksRegistry(JwksRegistry jwksRegistry) {
+            this.jwksRegistry = jwksRegistry;
+            return this;
+        }
+
+        /**
+         * @param claimsFirst If true the claims of a token are checked before its signature,
+         *                    so tokens with claims that are not valid are rejected without an
+         *                    RSA verification or a key set load. False by default
+         * @return This builder
+         */
+        public Builder claimsFirst(boolean claimsFirst) {
+            this.claimsFirst = claimsFirst;
+            return this;
+        }
+
+        Builder refreshExecutor(Executor refreshExecutor) {
+            this.refreshExecutor = refreshExecutor;
+            return this;
+        }
+
+        /**
+         * @return The validator
+         * @throws IllegalStateException If a registry is given together with key set settings,
+         *                               which are taken from the registry
+         */
+        public CisAppTokenValidator build() {
+            if (jwksRegistry != null && (jwksSource != null || maxStaleness != null
+                    || unknownKeyRefreshInterval != null)) {
+                throw new IllegalStateException(
+                        "<jwksRegistry> cannot be combined with <jwksSource>, <maxStaleness> or <unknownKeyRefreshInterval>");
+            }
+            return new CisAppTokenValidator(this);
+        }
+    }
+}
@@ -8,20 +8,19 @@ import org.springframework.web.servlet.HandlerInterceptor;
 import uk.gov.companieshouse.api.AttributeName;
 import uk.gov.companieshouse.api.model.transaction.Transaction;
 import uk.gov.companieshouse.api.model.transaction.TransactionStatus;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 
 public class ClosedTransactionInterceptor implements HandlerInterceptor {
 
-    private final Logger LOGGER;
+    private final SecurityLogger LOGGER;
 
 
     public ClosedTransactionInterceptor() {
-        LOGGER = LoggerFactory.getLogger(String.valueOf(ClosedTransactionInterceptor.class));
+        LOGGER = SecurityLogger.getLogger(String.valueOf(ClosedTransactionInterceptor.class));
     }
 
     public ClosedTransactionInterceptor(String loggingNamespace) {
-        LOGGER = LoggerFactory.getLogger(loggingNamespace);
+        LOGGER = SecurityLogger.getLogger(loggingNamespace);
     }
 
     /**
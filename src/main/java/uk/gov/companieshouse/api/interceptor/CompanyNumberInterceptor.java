@@ -0,0 +1,115 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
+import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+
+/**
+ * Checks the company number in the request path is one the token has been granted, through
+ * {@link Permission.Key#COMPANY_NUMBER}, and optionally that the token also holds a
+ * required permission.
+ * The company number is read from the URI template variables of the matched handler, by
+ * default the {@value #DEFAULT_PATH_VARIABLE} variable.
+ * It will try to find a {@link TokenPermissions} object in the
+ * request or create one and store it in the request if not
+ */
+public class CompanyNumberInterceptor implements HandlerInterceptor {
+
+    public static final String DEFAULT_PATH_VARIABLE = "companyNumber";
+
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(CompanyNumberInterceptor.class));
+
+    private final String pathVariable;
+    private final Permission.Key requiredKey;
+    private final String requiredValue;
+
+    /**
+     * Only check the company number in the {@value #DEFAULT_PATH_VARIABLE} path variable
+     */
+    public CompanyNumberInterceptor() {
+        this(DEFAULT_PATH_VARIABLE, null, null);
+    }
+
+    /**
+     * @param requiredKey   The permission key also required
+     * @param requiredValue The value required for the key
+     */
+    public CompanyNumberInterceptor(Permission.Key requiredKey, String requiredValue) {
+        this(DEFAULT_PATH_VARIABLE, requiredKey, requiredValue);
+    }
+
+    /**
+     * @param pathVariable  The name of the URI template variable holding the company number
+     * @param requiredKey   The permission key also required, null if only the company
+     *                      number is checked
+     * @param requiredValue The value required for the key
+     */
+    public CompanyNumberInterceptor(String pathVariable, Permission.Key requiredKey, String requiredValue) {
+        this.pathVariable = Objects.requireNonNull(pathVariable, "<pathVariable> must not be null");
+        if (requiredKey != null && requiredValue == null) {
+            throw new IllegalArgumentException("<requiredValue> must be set when <requiredKey> is set");
+        }
+        this.requiredKey = requiredKey;
+        this.requiredValue = requiredValue;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InvalidTokenPermissionException {
+        final String companyNumber = getCompanyNumber(request);
+        if (companyNumber == null) {
+            LOGGER.debugRequest(request, () -> "no company number in path variable [" + pathVariable + "]");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return false;
+        }
+
+        final TokenPermissions tokenPermissions =
+                InterceptorHelper.getTokenPermissions(request, getTokenPermissionsFromRequest(request));
+        final boolean authorised = tokenPermissions.hasPermission(Permission.Key.COMPANY_NUMBER, companyNumber)
+                && (requiredKey == null || tokenPermissions.hasPermission(requiredKey, requiredValue));
+
+        if (!authorised) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        }
+
+        LOGGER.debugRequest(request, "CompanyNumberInterceptor handled request", () -> {
+            final Map<String, Object> debugMap = new HashMap<>();
+            debugMap.put("company_number", companyNumber);
+            debugMap.put("authorised", authorised);
+            if (requiredKey != null) {
+                debugMap.put("expected_permission", requiredKey + "=" + requiredValue);
+            }
+            return debugMap;
+        });
+        return authorised;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) throws Exception {
+        // cleanup request to ensure it is never leaked into another request
+        InterceptorHelper.storeTokenPermissionsInRequest(null, request);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String getCompanyNumber(HttpServletRequest request) {
+        final Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return pathVariables == null ? null : pathVariables.get(pathVariable);
+    }
+
+    protected Optional<TokenPermissions> getTokenPermissionsFromRequest(HttpServletRequest request) {
+        return AuthorisationUtil.getTokenPermissions(request);
+    }
+}
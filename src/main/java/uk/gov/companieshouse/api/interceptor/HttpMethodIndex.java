@@ -0,0 +1,93 @@
+package uk.gov.companieshouse.api.interceptor;
+
+/**
+ * Dense index of the standard HTTP methods, in the order of
+ * {@link org.springframework.http.HttpMethod#values()}, so that per method data can be held
+ * in arrays and looked up without hashing.
+ */
+final class HttpMethodIndex {
+
+    static final int GET = 0;
+    static final int HEAD = 1;
+    static final int POST = 2;
+    static final int PUT = 3;
+    static final int PATCH = 4;
+    static final int DELETE = 5;
+    static final int OPTIONS = 6;
+    static final int TRACE = 7;
+
+    /**
+     * Number of standard methods, every index is less than this
+     */
+    static final int SIZE = 8;
+
+    /**
+     * Returned by {@link #of(String)} for a method that is not a standard one
+     */
+    static final int OTHER = -1;
+
+    private static final String[] NAMES = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+
+    private HttpMethodIndex() {
+        // Private constructor for utility class
+    }
+
+    /**
+     * @param method The HTTP method, case sensitive as in the request line
+     * @return The index of the method or {@link #OTHER} if it is not a standard method
+     */
+    static int of(String method) {
+        if (method == null) {
+            return OTHER;
+        }
+        final int index;
+        switch (method.length()) {
+            case 3:
+                index = method.charAt(0) == 'G' ? GET : PUT;
+                break;
+            case 4:
+                index = method.charAt(0) == 'H' ? HEAD : POST;
+                break;
+            case 5:
+                index = method.charAt(0) == 'P' ? PATCH : TRACE;
+                break;
+            case 6:
+                index = DELETE;
+                break;
+            case 7:
+                index = OPTIONS;
+                break;
+            default:
+                return OTHER;
+        }
+        return NAMES[index].equals(method) ? index : OTHER;
+    }
+
+    /**
+     * Normalise a method configured by a service, so a standard method given in another case,
+     * such as {@code "get"}, matches the requests using it
+     *
+     * @param method The HTTP method
+     * @return The name of the standard method it is, ignoring case, otherwise the method as
+     *         given, other methods being case sensitive
+     */
+    static String normalise(String method) {
+        if (method == null || of(method) != OTHER) {
+            return method;
+        }
+        for (String name : NAMES) {
+            if (name.equalsIgnoreCase(method)) {
+                return name;
+            }
+        }
+        return method;
+    }
+
+    /**
+     * @param index The index of a standard method
+     * @return The name of the method
+     */
+    static String name(int index) {
+        return NAMES[index];
+    }
+}
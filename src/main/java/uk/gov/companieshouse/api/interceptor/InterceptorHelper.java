@@ -1,10 +1,13 @@
 package uk.gov.companieshouse.api.interceptor;
 
+import java.util.Optional;
+
 import jakarta.servlet.http.HttpServletRequest;
 
 import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
 import uk.gov.companieshouse.api.util.security.SecurityConstants;
 import uk.gov.companieshouse.api.util.security.TokenPermissions;
+import uk.gov.companieshouse.api.util.security.TokenPermissionsCache;
 import uk.gov.companieshouse.api.util.security.TokenPermissionsImpl;
 
 class InterceptorHelper {
@@ -15,7 +18,7 @@ class InterceptorHelper {
 
     /**
      * Parse the token permissions object from the request and return a
-     * {@link TokenPermissions} object
+     * {@link TokenPermissions} object.
      * 
      * @param request The HTTP request
      * @return A {@link TokenPermissions} object containing the permissions for the
@@ -27,6 +30,42 @@ class InterceptorHelper {
         return new TokenPermissionsImpl(request);
     }
 
+    /**
+     * Read the token permissions of the request through the given cache, so a header that
+     * has been seen before is not parsed again
+     * 
+     * @param request The HTTP request
+     * @param cache   The cache to look the header up in, or null to parse it
+     * @return A {@link TokenPermissions} object containing the permissions for the
+     *         request
+     * @throws InvalidTokenPermissionException If there is a problem parsing the
+     *                                         request
+     */
+    static TokenPermissions readTokenPermissions(HttpServletRequest request, TokenPermissionsCache cache)
+            throws InvalidTokenPermissionException {
+        return cache == null ? readTokenPermissions(request) : cache.get(request);
+    }
+
+    /**
+     * Get the token permissions already stored in the request or read them (and store them
+     * in the request) if there are none
+     * 
+     * @param request     The HTTP request
+     * @param fromRequest The token permissions stored in the request, if any
+     * @return The token permissions of the request
+     * @throws InvalidTokenPermissionException If there is a problem parsing the
+     *                                         request
+     */
+    static TokenPermissions getTokenPermissions(HttpServletRequest request, Optional<TokenPermissions> fromRequest)
+            throws InvalidTokenPermissionException {
+        if (fromRequest.isPresent()) {
+            return fromRequest.get();
+        }
+        final TokenPermissions tokenPermissions = readTokenPermissions(request);
+        storeTokenPermissionsInRequest(tokenPermissions, request);
+        return tokenPermissions;
+    }
+
     /**
      * Store the given TokenPermissions object in the given request
      * 
@@ -9,10 +9,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
 import uk.gov.companieshouse.api.util.security.SecurityConstants;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
 
 /**
  * Pre handle method to authenticate the request before it reaches the controller by checking if
@@ -22,14 +21,14 @@ import uk.gov.companieshouse.logging.LoggerFactory;
 @Component
 public class InternalUserInterceptor implements HandlerInterceptor {
     
-    private final Logger LOG;
+    private final SecurityLogger LOG;
 
     public InternalUserInterceptor() {
-        LOG = LoggerFactory.getLogger(String.valueOf(InternalUserInterceptor.class));
+        LOG = SecurityLogger.getLogger(String.valueOf(InternalUserInterceptor.class));
     }
 
     public InternalUserInterceptor(String loggingNamespace) {
-        LOG = LoggerFactory.getLogger(loggingNamespace);
+        LOG = SecurityLogger.getLogger(loggingNamespace);
     }
 
     @Override
@@ -37,26 +36,26 @@ public class InternalUserInterceptor implements HandlerInterceptor {
         
         final String authorisedUser = AuthorisationUtil.getAuthorisedIdentity(request); 
         if (authorisedUser == null) {
-            LOG.debugRequest(request, "no authorised identity", null);
+            LOG.debugRequest(request, "no authorised identity");
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return false;
         }
 
         final String identityType = AuthorisationUtil.getAuthorisedIdentityType(request);
         if ( ! StringUtils.equals(identityType, SecurityConstants.API_KEY_IDENTITY_TYPE)) {
-            LOG.debugRequest(request, "invalid identity type [" + identityType + "]", null);
+            LOG.debugRequest(request, () -> "invalid identity type [" + identityType + "]");
             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
             return false;
         }
         
         boolean hasInternalUserRole = AuthorisationUtil.hasInternalUserRole(request);
         if ( ! hasInternalUserRole) {
-            LOG.debugRequest(request, "user does not have internal user privileges ", null);
+            LOG.debugRequest(request, "user does not have internal user privileges ");
             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
             return false;
         }
         
-        LOG.debugRequest(request, "authorised as api key (internal user)", null);
+        LOG.debugRequest(request, "authorised as api key (internal user)");
         return true;
     }
 
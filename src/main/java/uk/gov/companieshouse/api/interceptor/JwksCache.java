@@ -0,0 +1,282 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
+
+/**
+ * The key set of a tenant, with a signature verifier for each of its keys, that
+ * {@link CisAppTokenValidator} verifies tokens with. Either held by a single validator, or
+ * shared through a {@link JwksRegistry} by every validator of the tenant.
+ * <p>
+ * The key set is refreshed in the background shortly before it is an hour old, and used
+ * while a refresh is in flight or failing until it is older than the maximum staleness. A
+ * key id missing from the key set makes it reload at most once per refresh interval for
+ * unknown keys, and key ids still missing after that are remembered for the interval, across
+ * reloads, so they are answered without touching the network or the lock. A reload for an
+ * unknown key id does not wait for a load already in flight: the key id is reported as
+ * unknown instead.
+ * <p>
+ * The key set, its verifiers and the time it was loaded are held as one immutable
+ * {@link Snapshot}, replaced atomically, so readers never see a key set with the verifiers
+ * or load time of another. Loads are serialised by a {@link ReentrantLock} rather than a
+ * monitor, so threads waiting on a load over the network do not pin virtual thread carriers.
+ * <p>
+ * The key set is loaded from the source passed by the caller, so that validators keep
+ * loading it through {@link CisAppTokenValidator#loadJwkSet()}.
+ */
+final class JwksCache {
+
+    static final long CACHE_TTL_MILLIS = (60 * 60 * 1000); // 1 hour
+    private static final long REFRESH_AHEAD_MILLIS = (5 * 60 * 1000); // 5 minutes
+    private static final long REFRESH_RETRY_MILLIS = (30 * 1000); // 30 seconds
+    private static final long UNKNOWN_KEY_IDS_MAXIMUM_SIZE = 1_000L;
+
+    static final Executor REFRESH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "cis-jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(JwksCache.class));
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /* Key ids missing from the key set after a reload */
+    private final Cache<String, Boolean> unknownKeyIds;
+
+    private final String tenantId;
+    private final long maxStalenessMillis;
+    private final long unknownKeyRefreshIntervalMillis;
+    private final Executor refreshExecutor;
+
+    private final AtomicBoolean refreshInFlight = new AtomicBoolean();
+    private volatile long lastRefreshAttempt = 0;
+
+    JwksCache(String tenantId, Duration maxStaleness, Duration unknownKeyRefreshInterval, Executor refreshExecutor) {
+        this.tenantId = tenantId;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.unknownKeyRefreshIntervalMillis = unknownKeyRefreshInterval.toMillis();
+        this.unknownKeyIds = Caffeine.newBuilder()
+                .maximumSize(UNKNOWN_KEY_IDS_MAXIMUM_SIZE)
+                .expireAfterWrite(unknownKeyRefreshInterval)
+                .build();
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Get the verifier for the given key, built when the key set was loaded, and start a
+     * background refresh once the key set is due for one. Looks the key up in the key set,
+     * loading it, when the key set is older than the maximum staleness, or does not hold the
+     * key and may be reloaded for an unknown key. A reload for an unknown key is skipped when
+     * another load is in flight
+     *
+     * @param keyId  The key id of the token
+     * @param now    The current time in milliseconds
+     * @param source The source to load the key set from
+     * @return The verifier, or null if the key is unknown
+     */
+    JWSVerifier getVerifier(String keyId, long now, JwksSource source) throws IOException, ParseException, JOSEException {
+        if (keyId == null) {
+            return null;
+        }
+        Snapshot current = snapshot.get();
+        long age = now - current.timestamp();
+        JWK jwk;
+        if (age <= maxStalenessMillis) {
+            if (age > CACHE_TTL_MILLIS - REFRESH_AHEAD_MILLIS) {
+                refreshInBackground(now, source);
+            }
+            JWSVerifier verifier = current.verifiers().get(keyId);
+            if (verifier != null || unknownKeyIds.getIfPresent(keyId) != null
+                    || age < unknownKeyRefreshIntervalMillis) {
+                return verifier;
+            }
+            if (!loadLock.tryLock()) {
+                // Another load is in flight, the key id is unknown to the current key set
+                return null;
+            }
+            try {
+                jwk = findKeyLocked(keyId, now, source);
+            } finally {
+                loadLock.unlock();
+            }
+        } else {
+            jwk = findKey(keyId, now, source);
+        }
+        JWSVerifier verifier = snapshot.get().verifiers().get(keyId);
+        if (verifier == null && jwk instanceof RSAKey rsaKey) {
+            verifier = new RSASSAVerifier(rsaKey.toRSAPublicKey());
+        }
+        return verifier;
+    }
+
+    /**
+     * Look the given key up in the key set. The key set is loaded when it is older than the
+     * maximum staleness, and reloaded when it does not hold the key and is at least as old as
+     * the refresh interval for unknown keys. Key ids still missing are remembered
+     *
+     * @param keyId  The key id
+     * @param now    The current time in milliseconds
+     * @param source The source to load the key set from
+     * @return The key, or null if the key set does not hold it
+     */
+    JWK findKey(String keyId, long now, JwksSource source) throws IOException, ParseException {
+        JWK jwk = snapshot.get().findKey(keyId, now, maxStalenessMillis);
+        if (jwk != null) {
+            return jwk;
+        }
+
+        loadLock.lock();
+        try {
+            return findKeyLocked(keyId, now, source);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private JWK findKeyLocked(String keyId, long now, JwksSource source) throws IOException, ParseException {
+        Snapshot current = snapshot.get();
+        JWK jwk = current.findKey(keyId, now, maxStalenessMillis);
+        if (jwk == null && (current.jwkSet() == null || now - current.timestamp() > maxStalenessMillis
+                || now - current.timestamp() >= unknownKeyRefreshIntervalMillis)) {
+            jwk = store(source.load(), now).jwkSet().getKeyByKeyId(keyId);
+        }
+        if (jwk == null && keyId != null) {
+            unknownKeyIds.put(keyId, Boolean.TRUE);
+        }
+        return jwk;
+    }
+
+    /**
+     * Load the key set and build its verifiers now
+     *
+     * @param source The source to load the key set from
+     * @throws IOException    If the key set cannot be read
+     * @throws ParseException If the key set is not valid
+     */
+    void load(JwksSource source) throws IOException, ParseException {
+        loadLock.lock();
+        try {
+            store(source.load(), System.currentTimeMillis());
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * @return The key set currently used, with its verifiers and load time
+     */
+    Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Replace the key set. Key ids remembered as unknown are kept, as a key set holding one
+     * of them answers it through its verifiers first
+     */
+    private Snapshot store(JWKSet jwkSet, long now) {
+        Snapshot loaded = new Snapshot(jwkSet, buildVerifiers(jwkSet), now);
+        snapshot.set(loaded);
+        return loaded;
+    }
+
+    /**
+     * Start loading the key set on the refresh executor, unless a refresh is already in flight
+     * or the last one was attempted too recently. The current key set is used until it completes
+     */
+    private void refreshInBackground(long now, JwksSource source) {
+        if (now - lastRefreshAttempt < REFRESH_RETRY_MILLIS || !refreshInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        lastRefreshAttempt = now;
+        try {
+            refreshExecutor.execute(() -> refresh(source));
+        } catch (RejectedExecutionException e) {
+            refreshInFlight.set(false);
+        }
+    }
+
+    private void refresh(JwksSource source) {
+        try {
+            load(source);
+        } catch (Exception e) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("tenant_id", tenantId);
+            data.put("error", String.valueOf(e));
+            LOGGER.error("Failed to refresh the application token key set, using the previous one", data);
+        } finally {
+            refreshInFlight.set(false);
+        }
+    }
+
+    /**
+     * A key set, the verifier for each of its RSA keys by key id, and the time it was loaded
+     * in milliseconds
+     */
+    record Snapshot(JWKSet jwkSet, Map<String, JWSVerifier> verifiers, long timestamp) {
+
+        static final Snapshot EMPTY = new Snapshot(null, Map.of(), 0L);
+
+        /**
+         * @return The key, or null if there is no key set, it is older than the maximum
+         *         staleness or it does not hold the key
+         */
+        JWK findKey(String keyId, long now, long maxStalenessMillis) {
+            return jwkSet == null || now - timestamp > maxStalenessMillis ? null : jwkSet.getKeyByKeyId(keyId);
+        }
+    }
+
+    static Duration checkMaxStaleness(Duration maxStaleness) {
+        if (maxStaleness.toMillis() < CACHE_TTL_MILLIS) {
+            throw new IllegalArgumentException("<maxStaleness> must be at least an hour");
+        }
+        return maxStaleness;
+    }
+
+    static Duration checkUnknownKeyRefreshInterval(Duration unknownKeyRefreshInterval) {
+        if (unknownKeyRefreshInterval.isNegative() || unknownKeyRefreshInterval.isZero()) {
+            throw new IllegalArgumentException("<unknownKeyRefreshInterval> must be positive");
+        }
+        return unknownKeyRefreshInterval;
+    }
+
+    /**
+     * Build the verifier for each RSA key of the key set. Keys without an id, or that cannot
+     * be decoded, are left out and are looked up through the key set instead
+     */
+    static Map<String, JWSVerifier> buildVerifiers(JWKSet jwkSet) {
+        final Map<String, JWSVerifier> verifiers = new HashMap<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk instanceof RSAKey rsaKey && rsaKey.getKeyID() != null
+                    && !verifiers.containsKey(rsaKey.getKeyID())) {
+                try {
+                    verifiers.put(rsaKey.getKeyID(), new RSASSAVerifier(rsaKey.toRSAPublicKey()));
+                } catch (JOSEException e) {
+                    // Left for the key set lookup to report
+                }
+            }
+        }
+        return Map.copyOf(verifiers);
+    }
+}
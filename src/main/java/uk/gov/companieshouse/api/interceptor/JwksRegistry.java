@@ -0,0 +1,153 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Key sets of the Azure AD tenants issuing application tokens, shared by the
+ * {@link CisAppTokenValidator} instances built with the registry.
+ * <p>
+ * The registry holds one key set per tenant, loaded and refreshed once for every validator
+ * of the tenant, whatever the client ids they check tokens for. Services registering
+ * several {@link CisAppAuthenticationInterceptor} instances therefore fetch and hold the
+ * keys of a tenant once. {@link #shared()} is the registry of the process, used by the
+ * interceptors created from a tenant and client ids.
+ */
+public final class JwksRegistry {
+
+    private static final JwksRegistry SHARED = new JwksRegistry();
+
+    private final Function<String, JwksSource> sourceFactory;
+    private final Duration maxStaleness;
+    private final Duration unknownKeyRefreshInterval;
+    private final Executor refreshExecutor;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Create a registry loading the Azure AD keys of each tenant, with the default settings
+     */
+    public JwksRegistry() {
+        this(builder());
+    }
+
+    private JwksRegistry(Builder builder) {
+        this.sourceFactory = builder.sourceFactory;
+        this.maxStaleness = builder.maxStaleness;
+        this.unknownKeyRefreshInterval = builder.unknownKeyRefreshInterval;
+        this.refreshExecutor = builder.refreshExecutor;
+    }
+
+    /**
+     * @return The registry shared by the whole process
+     */
+    public static JwksRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return A builder of a registry with the default settings
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Load the key set of the tenant now, rather than on the first request. This blocks while
+     * the key set is fetched
+     *
+     * @param tenantId The Azure AD tenant
+     * @throws IOException    If the key set cannot be read
+     * @throws ParseException If the key set is not valid
+     */
+    public void prewarm(String tenantId) throws IOException, ParseException {
+        final Entry entry = entry(tenantId);
+        entry.keySet().load(entry.source());
+    }
+
+    /**
+     * @param tenantId The Azure AD tenant
+     * @return The source of the key set of the tenant
+     */
+    JwksSource source(String tenantId) {
+        return entry(tenantId).source();
+    }
+
+    /**
+     * @param tenantId The Azure AD tenant
+     * @return The key set of the tenant, created the first time the tenant is asked for
+     */
+    JwksCache keySet(String tenantId) {
+        return entry(tenantId).keySet();
+    }
+
+    /**
+     * @return The number of tenants with a key set
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private Entry entry(String tenantId) {
+        return entries.computeIfAbsent(tenantId, tenant -> new Entry(sourceFactory.apply(tenant),
+                new JwksCache(tenant, maxStaleness, unknownKeyRefreshInterval, refreshExecutor)));
+    }
+
+    private record Entry(JwksSource source, JwksCache keySet) {
+    }
+
+    public static class Builder {
+        private Function<String, JwksSource> sourceFactory = JwksSource::azureAd;
+        private Duration maxStaleness = CisAppTokenValidator.DEFAULT_MAX_STALENESS;
+        private Duration unknownKeyRefreshInterval = CisAppTokenValidator.DEFAULT_UNKNOWN_KEY_REFRESH_INTERVAL;
+        private Executor refreshExecutor = JwksCache.REFRESH_EXECUTOR;
+
+        private Builder() {
+        }
+
+        /**
+         * @param sourceFactory Gives the source of the key set of a tenant, the Azure AD keys
+         *                      of the tenant by default
+         * @return This builder
+         */
+        public Builder sourceFactory(Function<String, JwksSource> sourceFactory) {
+            this.sourceFactory = sourceFactory;
+            return this;
+        }
+
+        /**
+         * @param maxStaleness The maximum age of a key set that is still used while it cannot
+         *                     be refreshed, at least an hour
+         * @return This builder
+         */
+        public Builder maxStaleness(Duration maxStaleness) {
+            this.maxStaleness = JwksCache.checkMaxStaleness(maxStaleness);
+            return this;
+        }
+
+        /**
+         * @param unknownKeyRefreshInterval The minimum age of a key set before a token signed
+         *                                  with an unknown key id makes it reload, and how long
+         *                                  key ids still missing after a reload are remembered
+         * @return This builder
+         */
+        public Builder unknownKeyRefreshInterval(Duration unknownKeyRefreshInterval) {
+            this.unknownKeyRefreshInterval = JwksCache.checkUnknownKeyRefreshInterval(unknownKeyRefreshInterval);
+            return this;
+        }
+
+        Builder refreshExecutor(Executor refreshExecutor) {
+            this.refreshExecutor = refreshExecutor;
+            return this;
+        }
+
+        public JwksRegistry build() {
+            return new JwksRegistry(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import com.nimbusds.jose.jwk.JWKSet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Source of the JSON Web Key Set that {@link CisAppTokenValidator} verifies token
+ * signatures with.
+ * <p>
+ * The validator loads the Azure AD keys of its tenant over HTTP by default. A key set read
+ * from a file, the classpath or memory can be given instead, to run without the network,
+ * for instance in tests and benchmarks.
+ */
+@FunctionalInterface
+public interface JwksSource {
+
+    /**
+     * Timeout to connect to and to read from an HTTP source, in milliseconds
+     */
+    int HTTP_TIMEOUT_MILLIS = 5_000;
+
+    /**
+     * Maximum size of a key set read from an HTTP source, in bytes
+     */
+    int HTTP_SIZE_LIMIT_BYTES = 512 * 1024;
+
+    /**
+     * @return The key set
+     * @throws IOException    If the key set cannot be read
+     * @throws ParseException If the key set is not valid
+     */
+    JWKSet load() throws IOException, ParseException;
+
+    /**
+     * @param tenantId The Azure AD tenant
+     * @return The source of the signing keys published by the tenant
+     */
+    static JwksSource azureAd(String tenantId) {
+        return http(URI.create("https://login.microsoftonline.com/" + tenantId + "/discovery/v2.0/keys"));
+    }
+
+    /**
+     * @param uri The HTTP or HTTPS location of the key set
+     * @return A source reading the key set from the location on each load
+     */
+    static JwksSource http(URI uri) {
+        return () -> JWKSet.load(uri.toURL(), HTTP_TIMEOUT_MILLIS, HTTP_TIMEOUT_MILLIS, HTTP_SIZE_LIMIT_BYTES);
+    }
+
+    /**
+     * @param path The file holding the key set
+     * @return A source reading the key set from the file on each load
+     */
+    static JwksSource file(Path path) {
+        return () -> JWKSet.load(path.toFile());
+    }
+
+    /**
+     * @param resource The name of the classpath resource holding the key set
+     * @return A source reading the key set from the resource on each load
+     */
+    static JwksSource classpath(String resource) {
+        return () -> {
+            try (InputStream inputStream = JwksSource.class.getClassLoader().getResourceAsStream(resource)) {
+                if (inputStream == null) {
+                    throw new IOException("Key set resource not found: " + resource);
+                }
+                return JWKSet.load(inputStream);
+            }
+        };
+    }
+
+    /**
+     * @param jwkSet The key set
+     * @return A source always returning the given key set
+     */
+    static JwksSource of(JWKSet jwkSet) {
+        return () -> jwkSet;
+    }
+}
@@ -12,13 +12,13 @@ import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
 import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
 import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.PermissionSet;
 import uk.gov.companieshouse.api.util.security.SecurityConstants;
 import uk.gov.companieshouse.api.util.security.TokenPermissions;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
 
 /**
  * Checks the request contains the relevant token permission value based on the
@@ -29,14 +29,18 @@ import uk.gov.companieshouse.logging.LoggerFactory;
  */
 public class MappablePermissionsInterceptor implements HandlerInterceptor {
 
-    private static final Logger LOGGER =
-            LoggerFactory.getLogger(String.valueOf(MappablePermissionsInterceptor.class));
+    private static final SecurityLogger LOGGER =
+            SecurityLogger.getLogger(String.valueOf(MappablePermissionsInterceptor.class));
 
     private final Permission.Key permissionKey;
     private final boolean ignoreAPIKeyRequests;
     private final Set<String> ignoredHttpMethods;
     private final PermissionsMapping permissionsMapping;
 
+    /* Decision for each standard HTTP method by HttpMethodIndex, null when the method is
+    ignored, otherwise the permissions of which any one is required */
+    private final PermissionSet[] permissionSets;
+
     /**
      * @param permissionKey      The expected permission key
      * @param permissionsMapping The mapping from HTTP method to allowed Permission.Value's
@@ -66,32 +70,37 @@ public class MappablePermissionsInterceptor implements HandlerInterceptor {
         this.ignoreAPIKeyRequests = ignoreAPIKeyRequests;
         this.permissionsMapping = permissionsMapping;
         this.ignoredHttpMethods = new HashSet<>(Arrays.asList(ignoredHttpMethods));
+        this.permissionSets = new PermissionSet[HttpMethodIndex.SIZE];
+        for (int index = 0; index < HttpMethodIndex.SIZE; index++) {
+            final String method = HttpMethodIndex.name(index);
+            if (!this.ignoredHttpMethods.contains(method)) {
+                permissionSets[index] = PermissionSet.of(permissionKey, permissionsMapping.apply(method));
+            }
+        }
     }
 
     @Override
     public boolean preHandle(@NonNull final HttpServletRequest request,
             @NonNull final HttpServletResponse response, @NonNull final Object handler) {
-        if (ignoreRequest(request)) {
+        final PermissionSet expected = getPermissionSet(request.getMethod());
+        if (expected == null || ignoreAPIKeyRequest(request)) {
             return true;
         }
 
         final TokenPermissions tokenPermissions = getTokenPermissions(request);
-        final Set<String> expected = permissionsMapping.apply(request.getMethod());
-        final boolean authorised = expected.isEmpty() || expected.stream()
-                .anyMatch(p -> tokenPermissions.hasPermission(permissionKey, p));
+        final boolean authorised = expected.isEmpty() || tokenPermissions.hasAnyOf(expected);
 
         if (!authorised) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         }
 
-        final Map<String, Object> debugMap = new HashMap<>();
-
-        debugMap.put("request_method", request.getMethod());
-        debugMap.put("authorised", authorised);
-        debugMap.put("expected_permissions", permissionKey + "=" + expected);
-        LOGGER.debugRequest(request,
-                MappablePermissionsInterceptor.class.getSimpleName() + " handled request",
-                debugMap);
+        LOGGER.debugRequest(request, "MappablePermissionsInterceptor handled request", () -> {
+            final Map<String, Object> debugMap = new HashMap<>();
+            debugMap.put("request_method", request.getMethod());
+            debugMap.put("authorised", authorised);
+            debugMap.put("expected_permissions", expected.toString());
+            return debugMap;
+        });
 
         return authorised;
     }
@@ -107,9 +116,33 @@ public class MappablePermissionsInterceptor implements HandlerInterceptor {
     }
 
     private boolean ignoreRequest(final HttpServletRequest request) {
-        return ignoredHttpMethods.contains(request.getMethod()) || (this.ignoreAPIKeyRequests
-                && SecurityConstants.API_KEY_IDENTITY_TYPE.equals(
-                AuthorisationUtil.getAuthorisedIdentityType(request)));
+        return getPermissionSet(request.getMethod()) == null || ignoreAPIKeyRequest(request);
+    }
+
+    boolean isIgnoreAPIKeyRequests() {
+        return ignoreAPIKeyRequests;
+    }
+
+    private boolean ignoreAPIKeyRequest(final HttpServletRequest request) {
+        return this.ignoreAPIKeyRequests && SecurityConstants.API_KEY_IDENTITY_TYPE.equals(
+                AuthorisationUtil.getAuthorisedIdentityType(request));
+    }
+
+    /**
+     * Get the permissions required for the HTTP method, a table read for the standard
+     * methods
+     *
+     * @param method the HTTP method of the request
+     * @return the permissions of which any one is required, null if the method is ignored
+     */
+    PermissionSet getPermissionSet(final String method) {
+        final int index = HttpMethodIndex.of(method);
+        if (index != HttpMethodIndex.OTHER) {
+            return permissionSets[index];
+        }
+        return ignoredHttpMethods.contains(method)
+                ? null
+                : PermissionSet.of(permissionKey, permissionsMapping.apply(method));
     }
 
     /**
@@ -126,9 +159,7 @@ public class MappablePermissionsInterceptor implements HandlerInterceptor {
             try {
                 final TokenPermissions tp = InterceptorHelper.readTokenPermissions(request);
                 InterceptorHelper.storeTokenPermissionsInRequest(tp, request);
-                final Map<String, Object> loggedData = new HashMap<>();
-                LOGGER.debugRequest(request, "Create TokenPermissions and store it in request",
-                        loggedData);
+                LOGGER.debugRequest(request, "Create TokenPermissions and store it in request");
                 return tp;
             }
             catch (final InvalidTokenPermissionException e) {
@@ -3,8 +3,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 import uk.gov.companieshouse.api.AttributeName;
 import uk.gov.companieshouse.api.model.transaction.Transaction;
 import uk.gov.companieshouse.api.model.transaction.TransactionStatus;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.util.HashMap;
@@ -12,15 +11,15 @@ import java.util.Map;
 
 public class OpenTransactionInterceptor implements HandlerInterceptor {
 
-    private final Logger LOGGER;
+    private final SecurityLogger LOGGER;
 
 
     public OpenTransactionInterceptor() {
-        LOGGER = LoggerFactory.getLogger(String.valueOf(OpenTransactionInterceptor.class));
+        LOGGER = SecurityLogger.getLogger(String.valueOf(OpenTransactionInterceptor.class));
     }
 
     public OpenTransactionInterceptor(String loggingNamespace) {
-        LOGGER = LoggerFactory.getLogger(loggingNamespace);
+        LOGGER = SecurityLogger.getLogger(loggingNamespace);
     }
     /**
      * Pre handle method to validate the request before it reaches the controller by checking if the
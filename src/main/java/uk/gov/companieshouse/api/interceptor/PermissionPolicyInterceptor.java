@@ -0,0 +1,77 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
+import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.PermissionPolicy;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+
+/**
+ * Checks the request satisfies a {@link PermissionPolicy}, so that a rule such as
+ * {@code company_officers=update OR (company_pscs=update AND company_status=read)} can be
+ * applied to a route with a single interceptor.
+ * It will try to find a {@link TokenPermissions} object in the
+ * request or create one and store it in the request if not
+ */
+public class PermissionPolicyInterceptor implements HandlerInterceptor {
+
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(PermissionPolicyInterceptor.class));
+
+    private final PermissionPolicy policy;
+
+    /**
+     * @param policy The policy expression, see {@link PermissionPolicy}
+     * @throws IllegalArgumentException If the expression is not valid
+     */
+    public PermissionPolicyInterceptor(String policy) {
+        this(PermissionPolicy.compile(policy));
+    }
+
+    /**
+     * @param policy The compiled policy
+     */
+    public PermissionPolicyInterceptor(PermissionPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InvalidTokenPermissionException {
+        final TokenPermissions tokenPermissions =
+                InterceptorHelper.getTokenPermissions(request, getTokenPermissionsFromRequest(request));
+
+        final boolean authorised = policy.test(tokenPermissions, request.getMethod(),
+                AuthorisationUtil.getAuthorisedIdentityType(request));
+
+        if (!authorised) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        }
+
+        LOGGER.debugRequest(request, "PermissionPolicyInterceptor handled request", () -> {
+            final Map<String, Object> debugMap = new HashMap<>();
+            debugMap.put("request_method", request.getMethod());
+            debugMap.put("authorised", authorised);
+            debugMap.put("expected_policy", policy.toString());
+            return debugMap;
+        });
+        return authorised;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) throws Exception {
+        // cleanup request to ensure it is never leaked into another request
+        InterceptorHelper.storeTokenPermissionsInRequest(null, request);
+    }
+
+    protected Optional<TokenPermissions> getTokenPermissionsFromRequest(HttpServletRequest request) {
+        return AuthorisationUtil.getTokenPermissions(request);
+    }
+}
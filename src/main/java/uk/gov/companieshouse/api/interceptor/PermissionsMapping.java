@@ -3,12 +3,13 @@ package uk.gov.companieshouse.api.interceptor;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
 
 /**
  * <p>A general-purpose mapping of {@code String} keys to {@code Set<String>} values intended to
@@ -52,39 +53,77 @@ import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
  *         {@code PermissionMapping.builder().defaultRequireAnyOf("read").mappedRequireAnyOf("POST",
  *     "readprotected", "create").mappedRequireNone("GET").build()}</li>
  * </ol>
+ * <p>
+ * The built mapping is immutable. The value sets of the standard HTTP methods are held in an
+ * array indexed by method, so {@link #apply(String)} does no hashing and no allocation for
+ * them.
  */
 public class PermissionsMapping implements PermissionsAllowable {
     private static final String DEFAULT_KEY = null;
 
-    /* Internal value representing an empty (size 0) value set. Used here because
-    HashSetValuedHashMap does not add a mapping for if the values set is empty.
-     */
-    private static final String EMPTY_VALUE = null;
+    /* Value sets for the standard HTTP methods, by HttpMethodIndex */
+    private final Set<String>[] methodValues;
 
-    private final HashSetValuedHashMap<String, String> permissionsMap;
+    /* Value sets for any other explicitly mapped keys */
+    private final Map<String, Set<String>> otherValues;
+
+    private final Set<String> defaultValues;
 
 
     @Override
     public Set<String> apply(final String key) {
-        final Set<String> storedValues =
-                permissionsMap.get(permissionsMap.containsKey(key) ? key : DEFAULT_KEY);
-
-        return storedValues.contains(EMPTY_VALUE)
-                ? Collections.emptySet()
-                : Collections.unmodifiableSet(storedValues);
+        final int index = HttpMethodIndex.of(key);
+        if (index != HttpMethodIndex.OTHER) {
+            return methodValues[index];
+        }
+        final Set<String> values = otherValues.get(key);
+        return values == null ? defaultValues : values;
     }
 
-    private PermissionsMapping() {
-        permissionsMap = new HashSetValuedHashMap<>();
+    @SuppressWarnings("unchecked")
+    private PermissionsMapping(final Map<String, Requirement> requirements) {
+        final Requirement defaultRequirement = requirements.get(DEFAULT_KEY);
+        defaultValues = defaultRequirement == null ? Collections.emptySet() : defaultRequirement.toSet();
+
+        methodValues = new Set[HttpMethodIndex.SIZE];
+        Arrays.fill(methodValues, defaultValues);
+
+        final Map<String, Set<String>> others = new HashMap<>();
+        for (Map.Entry<String, Requirement> entry : requirements.entrySet()) {
+            if (entry.getKey() == null) {
+                continue;
+            }
+            final int index = HttpMethodIndex.of(entry.getKey());
+            if (index == HttpMethodIndex.OTHER) {
+                others.put(entry.getKey(), entry.getValue().toSet());
+            } else {
+                methodValues[index] = entry.getValue().toSet();
+            }
+        }
+        otherValues = Collections.unmodifiableMap(others);
     }
 
     public static PermissionsDefaultBuilder builder() {
         return new PermissionsMappingBuilder();
     }
 
+    /**
+     * Values collected for a key while building, merged across builder calls
+     */
+    private static final class Requirement {
+        private final Set<String> values = new LinkedHashSet<>();
+        private boolean none;
+
+        private Set<String> toSet() {
+            return none || values.isEmpty()
+                    ? Collections.emptySet()
+                    : Collections.unmodifiableSet(values);
+        }
+    }
+
     public static class PermissionsMappingBuilder
             implements PermissionsDefaultBuilder, PermissionsMapBuilder {
-        private final List<Consumer<PermissionsMapping>> buildSteps;
+        private final List<Consumer<Map<String, Requirement>>> buildSteps;
 
         private PermissionsMappingBuilder() {
             this.buildSteps = new ArrayList<>();
@@ -92,39 +131,42 @@ public class PermissionsMapping implements PermissionsAllowable {
 
         @Override
         public PermissionsMappingBuilder defaultRequireAnyOf(final String... values) {
-            buildSteps.add(
-                    p -> p.permissionsMap.putAll(DEFAULT_KEY, buildImmutableNonEmptySet(values)));
+            buildSteps.add(r -> requirement(r, DEFAULT_KEY).values.addAll(buildNonEmptyList(values)));
             return this;
         }
 
         @Override
         public PermissionsMappingBuilder defaultRequireNone() {
-            buildSteps.add(
-                    p -> p.permissionsMap.putAll(DEFAULT_KEY, Collections.singleton(EMPTY_VALUE)));
+            buildSteps.add(r -> requirement(r, DEFAULT_KEY).none = true);
             return this;
         }
 
         @Override
         public PermissionsMappingBuilder mappedRequireAnyOf(final String key, final String... values) {
-            buildSteps.add(p -> p.permissionsMap.putAll(key, buildImmutableNonEmptySet(values)));
+            buildSteps.add(r -> requirement(r, key).values.addAll(buildNonEmptyList(values)));
             return this;
         }
 
         @Override
         public PermissionsMappingBuilder mappedRequireNone(final String key) {
-            buildSteps.add(p -> p.permissionsMap.putAll(key, Collections.singleton(EMPTY_VALUE)));
+            buildSteps.add(r -> requirement(r, key).none = true);
             return this;
         }
 
         public PermissionsMapping build() {
-            final PermissionsMapping mapping = new PermissionsMapping();
+            final Map<String, Requirement> requirements = new HashMap<>();
 
-            buildSteps.forEach(step -> step.accept(mapping));
+            buildSteps.forEach(step -> step.accept(requirements));
+
+            return new PermissionsMapping(requirements);
+        }
 
-            return mapping;
+        private static Requirement requirement(final Map<String, Requirement> requirements,
+                final String key) {
+            return requirements.computeIfAbsent(key, k -> new Requirement());
         }
 
-        private static Set<String> buildImmutableNonEmptySet(final String[] values) {
+        private static List<String> buildNonEmptyList(final String[] values) {
             Objects.requireNonNull(values, "<values> must not be null");
             if (values.length == 0) {
                 throw new IllegalArgumentException("<values> must not be empty");
@@ -133,7 +175,7 @@ public class PermissionsMapping implements PermissionsAllowable {
                 throw new IllegalArgumentException("<values> must not contain a null");
             }
 
-            return Collections.unmodifiableSet(Arrays.stream(values).collect(Collectors.toSet()));
+            return Arrays.asList(values);
         }
 
     }
@@ -0,0 +1,55 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import uk.gov.companieshouse.api.util.security.Permission;
+
+/**
+ * Declares the token permission required to call a controller method, or every method of a
+ * controller class, enforced by {@link RequiresPermissionInterceptor}.
+ * <p>
+ * When a method is annotated the annotations of its class are not applied to it. When there
+ * are several annotations that apply to a request they are all required.
+ * <pre>
+ * &#64;RequiresPermission(key = Permission.Key.COMPANY_OFFICERS, values = Permission.Value.READ, methods = "GET")
+ * &#64;RequiresPermission(key = Permission.Key.COMPANY_OFFICERS, values = Permission.Value.UPDATE, methods = {"POST", "PUT"})
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Repeatable(RequiresPermission.List.class)
+public @interface RequiresPermission {
+
+    /**
+     * @return The permission key
+     */
+    Permission.Key key();
+
+    /**
+     * @return The values of which any one is required. When empty the value is derived from
+     *         the HTTP method as {@link CRUDAuthenticationInterceptor} does
+     */
+    String[] values() default {};
+
+    /**
+     * @return The HTTP methods the requirement applies to, all of them when empty. Standard
+     *         methods match ignoring case, other methods are case sensitive
+     */
+    String[] methods() default {};
+
+    /**
+     * Container of repeated {@link RequiresPermission} annotations
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.METHOD, ElementType.TYPE})
+    @interface List {
+        RequiresPermission[] value();
+    }
+}
@@ -0,0 +1,237 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
+import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.PermissionSet;
+import uk.gov.companieshouse.api.util.security.SecurityConstants;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+
+/**
+ * Enforces the {@link RequiresPermission} annotations of the controller method handling the
+ * request, in place of registering a permission interceptor per path pattern.
+ * <p>
+ * The annotations of a {@link HandlerMethod} are resolved the first time it handles a
+ * request into the permissions required for each HTTP method, and cached by controller
+ * method and bean type, so no reflection runs for the following requests, whatever the scope
+ * of the controller bean. Requests to handlers that are not controller methods, or
+ * without a requirement, are let through.
+ * It will try to find a {@link TokenPermissions} object in the
+ * request or create one and store it in the request if not
+ */
+public class RequiresPermissionInterceptor implements HandlerInterceptor {
+
+    private static final SecurityLogger LOGGER =
+            SecurityLogger.getLogger(String.valueOf(RequiresPermissionInterceptor.class));
+
+    private final boolean ignoreAPIKeyRequests;
+    private final Map<HandlerKey, Requirement> requirements = new ConcurrentHashMap<>();
+
+    public RequiresPermissionInterceptor() {
+        this(false);
+    }
+
+    /**
+     * @param ignoreAPIKeyRequests If true this interceptor will allow any API key traffic through.
+     *         Other specific API key checks (for elevated privileges etc) should be applied to
+     *         these routes to cover specific logic when this is true.
+     */
+    public RequiresPermissionInterceptor(boolean ignoreAPIKeyRequests) {
+        this.ignoreAPIKeyRequests = ignoreAPIKeyRequests;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InvalidTokenPermissionException {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        final PermissionSet[] expected = getRequirement(handlerMethod).getPermissionSets(request.getMethod());
+        if (expected.length == 0 || ignoreAPIKeyRequest(request)) {
+            return true;
+        }
+
+        final TokenPermissions tokenPermissions =
+                InterceptorHelper.getTokenPermissions(request, getTokenPermissionsFromRequest(request));
+        boolean authorised = true;
+        for (PermissionSet permissionSet : expected) {
+            if (!tokenPermissions.hasAnyOf(permissionSet)) {
+                authorised = false;
+                break;
+            }
+        }
+
+        if (!authorised) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        }
+
+        final boolean result = authorised;
+        LOGGER.debugRequest(request, "RequiresPermissionInterceptor handled request", () -> {
+            final Map<String, Object> debugMap = new HashMap<>();
+            debugMap.put("request_method", request.getMethod());
+            debugMap.put("handler", handlerMethod.toString());
+            debugMap.put("authorised", result);
+            debugMap.put("expected_permissions", Arrays.toString(expected));
+            return debugMap;
+        });
+        return authorised;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) throws Exception {
+        // cleanup request to ensure it is never leaked into another request
+        InterceptorHelper.storeTokenPermissionsInRequest(null, request);
+    }
+
+    private boolean ignoreAPIKeyRequest(HttpServletRequest request) {
+        return ignoreAPIKeyRequests && SecurityConstants.API_KEY_IDENTITY_TYPE.equals(
+                AuthorisationUtil.getAuthorisedIdentityType(request));
+    }
+
+    protected Optional<TokenPermissions> getTokenPermissionsFromRequest(HttpServletRequest request) {
+        return AuthorisationUtil.getTokenPermissions(request);
+    }
+
+    /**
+     * @param handlerMethod The controller method
+     * @return The requirement of the controller method, resolved the first time it handles a
+     *         request
+     */
+    private Requirement getRequirement(HandlerMethod handlerMethod) {
+        final HandlerKey key = new HandlerKey(handlerMethod.getMethod(), handlerMethod.getBeanType());
+        final Requirement requirement = requirements.get(key);
+        return requirement != null ? requirement : requirements.computeIfAbsent(key, k -> resolve(handlerMethod));
+    }
+
+    /**
+     * @param handlerMethod The controller method
+     * @return The requirement of the annotations on the method, or else on its class
+     */
+    Requirement resolve(HandlerMethod handlerMethod) {
+        Collection<RequiresPermission> annotations = findAnnotations(handlerMethod.getMethod());
+        if (annotations.isEmpty()) {
+            annotations = findAnnotations(handlerMethod.getBeanType());
+        }
+        return annotations.isEmpty() ? Requirement.NONE : new Requirement(annotations);
+    }
+
+    private static Collection<RequiresPermission> findAnnotations(AnnotatedElement element) {
+        return AnnotatedElementUtils.findMergedRepeatableAnnotations(element, RequiresPermission.class);
+    }
+
+    /**
+     * A controller method and the type of its bean, without the bean itself, so that the
+     * handlers of prototype or request scoped controllers share an entry and are not retained
+     */
+    private record HandlerKey(Method method, Class<?> beanType) {
+    }
+
+    /**
+     * The permissions required by the annotations of a handler, by HTTP method, all compiled
+     * when the handler is resolved
+     */
+    static final class Requirement {
+        private static final PermissionSet[] NO_PERMISSIONS = new PermissionSet[0];
+        static final Requirement NONE = new Requirement(List.of());
+
+        private final Rule[] rules;
+        private final PermissionSet[][] methodPermissions = new PermissionSet[HttpMethodIndex.SIZE][];
+        private final Map<String, PermissionSet[]> otherMethodPermissions;
+        private final PermissionSet[] unlistedMethodPermissions;
+
+        Requirement(Collection<RequiresPermission> annotations) {
+            this.rules = annotations.stream().map(Rule::of).toArray(Rule[]::new);
+            for (int index = 0; index < HttpMethodIndex.SIZE; index++) {
+                methodPermissions[index] = compile(HttpMethodIndex.name(index));
+            }
+            final Map<String, PermissionSet[]> others = new HashMap<>();
+            for (Rule rule : rules) {
+                for (String method : rule.methods()) {
+                    if (HttpMethodIndex.of(method) == HttpMethodIndex.OTHER) {
+                        others.computeIfAbsent(method, this::compile);
+                    }
+                }
+            }
+            this.otherMethodPermissions = Map.copyOf(others);
+            this.unlistedMethodPermissions = compile(null);
+        }
+
+        /**
+         * @param method The HTTP method of the request
+         * @return The permissions, each of which is required, a table read for the standard
+         *         methods. Empty if there is no requirement
+         */
+        PermissionSet[] getPermissionSets(String method) {
+            final int index = HttpMethodIndex.of(method);
+            if (index != HttpMethodIndex.OTHER) {
+                return methodPermissions[index];
+            }
+            final PermissionSet[] permissionSets = method == null ? null : otherMethodPermissions.get(method);
+            return permissionSets != null ? permissionSets : unlistedMethodPermissions;
+        }
+
+        /**
+         * @param method The HTTP method, or null for any non standard method that no
+         *               annotation names
+         */
+        private PermissionSet[] compile(String method) {
+            final List<PermissionSet> permissionSets = new ArrayList<>();
+            for (Rule rule : rules) {
+                if (rule.appliesTo(method)) {
+                    permissionSets.add(rule.permissionSet() != null
+                            ? rule.permissionSet()
+                            : PermissionSet.of(rule.key(), CRUDAuthenticationInterceptor.getValue(method)));
+                }
+            }
+            return permissionSets.isEmpty() ? NO_PERMISSIONS : permissionSets.toArray(NO_PERMISSIONS);
+        }
+    }
+
+    /**
+     * A single {@link RequiresPermission} annotation, with its methods normalised
+     *
+     * @param key           The permission key
+     * @param permissionSet The values required, null when they follow the HTTP method
+     * @param methods       The methods the annotation applies to, all of them when empty
+     */
+    private record Rule(Permission.Key key, PermissionSet permissionSet, Set<String> methods) {
+
+        static Rule of(RequiresPermission annotation) {
+            final Set<String> methods = new HashSet<>();
+            for (String method : annotation.methods()) {
+                if (StringUtils.isBlank(method) || method.chars().anyMatch(Character::isWhitespace)) {
+                    throw new IllegalArgumentException("Invalid HTTP method [" + method + "] in " + annotation);
+                }
+                methods.add(HttpMethodIndex.normalise(method));
+            }
+            return new Rule(annotation.key(),
+                    annotation.values().length == 0 ? null : PermissionSet.of(annotation.key(), annotation.values()),
+                    Set.copyOf(methods));
+        }
+
+        boolean appliesTo(String method) {
+            return methods.isEmpty() || method != null && methods.contains(method);
+        }
+    }
+}
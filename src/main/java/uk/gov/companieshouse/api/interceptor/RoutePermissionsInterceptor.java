@@ -0,0 +1,367 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.UrlPathHelper;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
+import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.PermissionSet;
+import uk.gov.companieshouse.api.util.security.SecurityConstants;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+
+/**
+ * Checks the request against a table of routes, each a path pattern and HTTP method mapped to
+ * the permissions of which any one is required, in place of one
+ * {@link CRUDAuthenticationInterceptor} or {@link MappablePermissionsInterceptor} registered
+ * per path pattern.
+ * <p>
+ * Path patterns are made of segments separated by {@code /}. A segment is either literal, a
+ * {@code {variable}} matching any single segment, or a final {@code **} matching any number of
+ * remaining segments. Literal segments take precedence over variables, which take precedence
+ * over {@code **}.
+ * <p>
+ * Routes are matched against the path Spring MVC looks handlers up with: the path within the
+ * application, with {@code ;} parameters removed, each segment decoded and empty segments
+ * ignored, so {@code /company/1/%6Ffficers;x=1} and {@code //company/1/officers/} match the
+ * same route as {@code /company/1/officers}.
+ * <p>
+ * The table is compiled at construction into a trie of path segments, so each request does a
+ * single walk of its path and a single permission check, however many routes are configured.
+ * The interceptor holds its own copy of the trie, so routes added to the builder afterwards do
+ * not change it.
+ * Requests that match no route, or a route with no requirement for the HTTP method, are
+ * rejected unless {@link Builder#allowUnmatchedRequests(boolean)} is set. A route mapped to no
+ * permissions for the method lets its requests through.
+ * It will try to find a {@link TokenPermissions} object in the
+ * request or create one and store it in the request if not
+ */
+public class RoutePermissionsInterceptor implements HandlerInterceptor {
+
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(RoutePermissionsInterceptor.class));
+
+    private static final String CATCH_ALL = "**";
+
+    private final Node root;
+    private final boolean ignoreAPIKeyRequests;
+    private final boolean allowUnmatchedRequests;
+
+    private RoutePermissionsInterceptor(Builder builder) {
+        this.root = builder.root.copy();
+        this.ignoreAPIKeyRequests = builder.ignoreAPIKeyRequests;
+        this.allowUnmatchedRequests = builder.allowUnmatchedRequests;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InvalidTokenPermissionException {
+        final Route route = findRoute(request);
+        final PermissionSet expected = route == null ? null : route.getPermissionSet(request.getMethod());
+        if (expected == null) {
+            return allowUnmatchedRequests || ignoreAPIKeyRequest(request) || rejectUnmatched(request, response, route);
+        }
+        if (expected.isEmpty() || ignoreAPIKeyRequest(request)) {
+            return true;
+        }
+
+        final TokenPermissions tokenPermissions =
+                InterceptorHelper.getTokenPermissions(request, getTokenPermissionsFromRequest(request));
+        final boolean authorised = tokenPermissions.hasAnyOf(expected);
+
+        if (!authorised) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        }
+
+        LOGGER.debugRequest(request, "RoutePermissionsInterceptor handled request", () -> {
+            final Map<String, Object> debugMap = new HashMap<>();
+            debugMap.put("request_method", request.getMethod());
+            debugMap.put("route", route.pattern);
+            debugMap.put("authorised", authorised);
+            debugMap.put("expected_permissions", expected.toString());
+            return debugMap;
+        });
+        return authorised;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) throws Exception {
+        // cleanup request to ensure it is never leaked into another request
+        InterceptorHelper.storeTokenPermissionsInRequest(null, request);
+    }
+
+    private static boolean rejectUnmatched(HttpServletRequest request, HttpServletResponse response, Route route) {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        LOGGER.debugRequest(request, "RoutePermissionsInterceptor rejected request without a route", () -> {
+            final Map<String, Object> debugMap = new HashMap<>();
+            debugMap.put("request_method", request.getMethod());
+            debugMap.put("route", route == null ? null : route.pattern);
+            return debugMap;
+        });
+        return false;
+    }
+
+    private boolean ignoreAPIKeyRequest(HttpServletRequest request) {
+        return ignoreAPIKeyRequests && SecurityConstants.API_KEY_IDENTITY_TYPE.equals(
+                AuthorisationUtil.getAuthorisedIdentityType(request));
+    }
+
+    /**
+     * @param request The HTTP request
+     * @return The most specific route matching the path of the request, null if none match
+     */
+    private Route findRoute(HttpServletRequest request) {
+        return root.match(getLookupPathSegments(request), 0);
+    }
+
+    /**
+     * @param request The HTTP request
+     * @return The non-empty segments of the path Spring MVC looks the handler up with, decoded
+     *         and without {@code ;} parameters. The path parsed by the dispatcher is used when
+     *         there is one, otherwise it is resolved as handler mappings do without one
+     */
+    private static List<String> getLookupPathSegments(HttpServletRequest request) {
+        final List<String> segments = new ArrayList<>();
+        if (ServletRequestPathUtils.hasParsedRequestPath(request)) {
+            final PathContainer path = ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication();
+            for (PathContainer.Element element : path.elements()) {
+                if (element instanceof PathContainer.PathSegment segment && !segment.valueToMatch().isEmpty()) {
+                    segments.add(segment.valueToMatch());
+                }
+            }
+            return segments;
+        }
+        final String path = UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    protected Optional<TokenPermissions> getTokenPermissionsFromRequest(HttpServletRequest request) {
+        return AuthorisationUtil.getTokenPermissions(request);
+    }
+
+    /**
+     * The requirements of a single path pattern, by HTTP method
+     */
+    private static final class Route {
+        private final String pattern;
+        private final PermissionSet[] methodPermissions = new PermissionSet[HttpMethodIndex.SIZE];
+        private final Map<String, PermissionSet> otherPermissions = new HashMap<>();
+
+        Route(String pattern) {
+            this.pattern = pattern;
+        }
+
+        Route copy() {
+            final Route copy = new Route(pattern);
+            System.arraycopy(methodPermissions, 0, copy.methodPermissions, 0, HttpMethodIndex.SIZE);
+            copy.otherPermissions.putAll(otherPermissions);
+            return copy;
+        }
+
+        void put(String method, PermissionSet permissionSet) {
+            final int index = HttpMethodIndex.of(method);
+            final PermissionSet existing = index == HttpMethodIndex.OTHER
+                    ? otherPermissions.putIfAbsent(method, permissionSet)
+                    : methodPermissions[index];
+            if (existing != null) {
+                throw new IllegalArgumentException("Duplicate route: " + method + " " + pattern);
+            }
+            if (index != HttpMethodIndex.OTHER) {
+                methodPermissions[index] = permissionSet;
+            }
+        }
+
+        /**
+         * @return The permissions of which any one is required, null if there is no
+         *         requirement for the method
+         */
+        PermissionSet getPermissionSet(String method) {
+            final int index = HttpMethodIndex.of(method);
+            return index == HttpMethodIndex.OTHER ? otherPermissions.get(method) : methodPermissions[index];
+        }
+    }
+
+    /**
+     * A node of the trie, one per distinct path segment position
+     */
+    private static final class Node {
+        private Map<String, Node> literals = new HashMap<>();
+        private Node variable;
+        private Node catchAll;
+        private Route route;
+
+        /**
+         * @return A deep copy of the node and its children, with unmodifiable literals
+         */
+        Node copy() {
+            final Node copy = new Node();
+            final Map<String, Node> copiedLiterals = new HashMap<>();
+            literals.forEach((segment, child) -> copiedLiterals.put(segment, child.copy()));
+            copy.literals = Map.copyOf(copiedLiterals);
+            copy.variable = variable == null ? null : variable.copy();
+            copy.catchAll = catchAll == null ? null : catchAll.copy();
+            copy.route = route == null ? null : route.copy();
+            return copy;
+        }
+
+        Route match(List<String> segments, int index) {
+            if (index == segments.size()) {
+                if (route != null) {
+                    return route;
+                }
+                return catchAll == null ? null : catchAll.route;
+            }
+            final Node literal = literals.get(segments.get(index));
+            if (literal != null) {
+                final Route found = literal.match(segments, index + 1);
+                if (found != null) {
+                    return found;
+                }
+            }
+            if (variable != null) {
+                final Route found = variable.match(segments, index + 1);
+                if (found != null) {
+                    return found;
+                }
+            }
+            return catchAll == null ? null : catchAll.route;
+        }
+    }
+
+    public static class Builder {
+        private final Node root = new Node();
+        private boolean ignoreAPIKeyRequests;
+        private boolean allowUnmatchedRequests;
+
+        private Builder() {
+        }
+
+        /**
+         * Require any one of the values for the key on the path pattern and HTTP method
+         *
+         * @param pathPattern The path pattern, e.g. "/company/{companyNumber}/officers/**"
+         * @param method      The HTTP method, standard methods in any case
+         * @param key         The permission key
+         * @param values      The values of which any one is required, none to let the
+         *                    requests through
+         * @return This builder
+         */
+        public Builder route(String pathPattern, String method, Permission.Key key, String... values) {
+            Objects.requireNonNull(method, "<method> must not be null");
+            getRoute(pathPattern).put(HttpMethodIndex.normalise(method), PermissionSet.of(key, values));
+            return this;
+        }
+
+        /**
+         * Require the permissions in the mapping, for every standard HTTP method, on the path
+         * pattern
+         *
+         * @param pathPattern        The path pattern, e.g. "/company/{companyNumber}/officers"
+         * @param key                The permission key
+         * @param permissionsMapping The mapping from HTTP method to allowed permissions
+         * @return This builder
+         */
+        public Builder route(String pathPattern, Permission.Key key, PermissionsMapping permissionsMapping) {
+            final Route route = getRoute(pathPattern);
+            for (int index = 0; index < HttpMethodIndex.SIZE; index++) {
+                final String method = HttpMethodIndex.name(index);
+                route.put(method, PermissionSet.of(key, permissionsMapping.apply(method)));
+            }
+            return this;
+        }
+
+        /**
+         * @param ignoreAPIKeyRequests If true any API key traffic is let through. Other
+         *         specific API key checks should be applied to these routes when this is true.
+         * @return This builder
+         */
+        public Builder ignoreAPIKeyRequests(boolean ignoreAPIKeyRequests) {
+            this.ignoreAPIKeyRequests = ignoreAPIKeyRequests;
+            return this;
+        }
+
+        /**
+         * @param allowUnmatchedRequests If true requests that match no route, or a route with
+         *         no requirement for their HTTP method, are let through rather than rejected.
+         *         Those requests should be checked by another interceptor when this is true.
+         * @return This builder
+         */
+        public Builder allowUnmatchedRequests(boolean allowUnmatchedRequests) {
+            this.allowUnmatchedRequests = allowUnmatchedRequests;
+            return this;
+        }
+
+        public RoutePermissionsInterceptor build() {
+            return new RoutePermissionsInterceptor(this);
+        }
+
+        private Route getRoute(String pathPattern) {
+            Objects.requireNonNull(pathPattern, "<pathPattern> must not be null");
+            Node node = root;
+            for (String segment : parse(pathPattern)) {
+                if (CATCH_ALL.equals(segment)) {
+                    if (node.catchAll == null) {
+                        node.catchAll = new Node();
+                    }
+                    node = node.catchAll;
+                } else if (segment.startsWith("{")) {
+                    if (node.variable == null) {
+                        node.variable = new Node();
+                    }
+                    node = node.variable;
+                } else {
+                    node = node.literals.computeIfAbsent(segment, s -> new Node());
+                }
+            }
+            // patterns differing only in variable names share a route
+            if (node.route == null) {
+                node.route = new Route(pathPattern);
+            }
+            return node.route;
+        }
+
+        private static List<String> parse(String pathPattern) {
+            if (!pathPattern.startsWith("/")) {
+                throw new IllegalArgumentException("Path pattern must start with '/': " + pathPattern);
+            }
+            final List<String> segments = new ArrayList<>();
+            for (String segment : pathPattern.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (!segments.isEmpty() && CATCH_ALL.equals(segments.get(segments.size() - 1))) {
+                    throw new IllegalArgumentException("'**' must be the last segment: " + pathPattern);
+                }
+                final boolean variable = segment.startsWith("{") || segment.endsWith("}");
+                if (variable && !(segment.length() > 2 && segment.startsWith("{") && segment.endsWith("}"))) {
+                    throw new IllegalArgumentException("Invalid path variable '" + segment + "': " + pathPattern);
+                }
+                if (!variable && !CATCH_ALL.equals(segment) && segment.contains("*")) {
+                    throw new IllegalArgumentException("Unsupported wildcard '" + segment + "': " + pathPattern);
+                }
+                segments.add(segment);
+            }
+            return segments;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
+import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
+import uk.gov.companieshouse.api.util.security.EricSecurityContext;
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.LazyTokenPermissions;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.PermissionSet;
+import uk.gov.companieshouse.api.util.security.SecurityConstants;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+import uk.gov.companieshouse.api.util.security.TokenPermissionsCache;
+import uk.gov.companieshouse.api.util.security.TokenPermissionsParser;
+
+/**
+ * Runs an ordered list of security checks in a single interceptor, in place of registering
+ * {@link UserAuthenticationInterceptor}, {@link InternalUserInterceptor},
+ * {@link RolePermissionInterceptor}, {@link TokenPermissionsInterceptor},
+ * {@link CRUDAuthenticationInterceptor} and {@link MappablePermissionsInterceptor} one after
+ * the other on a route.
+ * <p>
+ * The ERIC headers are read from the request once into an {@link EricSecurityContext}, shared
+ * by every stage and stored in the request for the handler. The token permissions header is
+ * only parsed by the stages that need it, which fail with an
+ * {@link InvalidTokenPermissionException} if it is not valid. The stages run in the order they
+ * were added and the first one to deny the request stops the pipeline, setting the same status
+ * code as the equivalent interceptor would.
+ * <pre>
+ * SecurityPipeline.builder()
+ *         .userAuthentication(List.of("GET"), List.of("oauth2"))
+ *         .crudPermission(Permission.Key.COMPANY_OFFICERS)
+ *         .build();
+ * </pre>
+ */
+public class SecurityPipeline implements HandlerInterceptor {
+
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(SecurityPipeline.class));
+
+    private final Stage[] stages;
+    private final boolean usesTokenPermissions;
+    private final TokenPermissionsCache tokenPermissionsCache;
+
+    private SecurityPipeline(Builder builder) {
+        this.stages = builder.stages.toArray(new Stage[0]);
+        this.usesTokenPermissions = builder.usesTokenPermissions;
+        this.tokenPermissionsCache = builder.tokenPermissionsCache;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InvalidTokenPermissionException {
+        final Exchange exchange = new Exchange(request, response);
+        for (Stage stage : stages) {
+            if (!stage.check().test(exchange)) {
+                LOGGER.debugRequest(request, "SecurityPipeline denied request", () -> {
+                    final Map<String, Object> debugMap = new HashMap<>();
+                    debugMap.put("request_method", request.getMethod());
+                    debugMap.put("denied_by", stage.name());
+                    debugMap.put("reason", exchange.reason);
+                    return debugMap;
+                });
+                return false;
+            }
+        }
+        LOGGER.debugRequest(request, () -> "SecurityPipeline authorised request after " + stages.length + " stages");
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) throws Exception {
+        // cleanup request to ensure it is never leaked into another request
+        EricSecurityContext.storeInRequest(null, request);
+        if (usesTokenPermissions) {
+            InterceptorHelper.storeTokenPermissionsInRequest(null, request);
+        }
+    }
+
+    protected Optional<TokenPermissions> getTokenPermissionsFromRequest(HttpServletRequest request) {
+        return AuthorisationUtil.getTokenPermissions(request);
+    }
+
+    /**
+     * A single check of the pipeline, which sets the response status when it denies the
+     * request
+     */
+    @FunctionalInterface
+    private interface Check {
+        boolean test(Exchange exchange) throws InvalidTokenPermissionException;
+    }
+
+    private record Stage(String name, Check check) {
+    }
+
+    /**
+     * The state shared by the stages while handling one request
+     */
+    private final class Exchange {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final EricSecurityContext context;
+        private TokenPermissions tokenPermissions;
+        private String reason;
+
+        Exchange(HttpServletRequest request, HttpServletResponse response) {
+            this.request = request;
+            this.response = response;
+            final Optional<EricSecurityContext> stored = EricSecurityContext.getFromRequest(request);
+            if (stored.isPresent()) {
+                this.context = stored.get();
+            } else {
+                this.context = EricSecurityContext.readHeaders(request);
+                EricSecurityContext.storeInRequest(context, request);
+            }
+        }
+
+        boolean deny(int status, String reason) {
+            this.reason = reason;
+            response.setStatus(status);
+            return false;
+        }
+
+        /**
+         * The token permissions set by an earlier stage or interceptor, otherwise those of the
+         * {@link EricSecurityContext}, stored in the request
+         */
+        TokenPermissions tokenPermissions() throws InvalidTokenPermissionException {
+            if (tokenPermissions == null) {
+                final Optional<TokenPermissions> fromRequest = getTokenPermissionsFromRequest(request);
+                if (fromRequest.isPresent()) {
+                    tokenPermissions = fromRequest.get();
+                } else {
+                    store(parseTokenPermissions());
+                }
+            }
+            return tokenPermissions;
+        }
+
+        TokenPermissions parseTokenPermissions() throws InvalidTokenPermissionException {
+            return context.parseTokenPermissions(tokenPermissionsCache);
+        }
+
+        void store(TokenPermissions tokenPermissions) {
+            this.tokenPermissions = tokenPermissions;
+            InterceptorHelper.storeTokenPermissionsInRequest(tokenPermissions, request);
+        }
+    }
+
+    public static class Builder {
+        private final List<Stage> stages = new ArrayList<>();
+        private boolean usesTokenPermissions;
+        private TokenPermissionsCache tokenPermissionsCache;
+
+        private Builder() {
+        }
+
+        /**
+         * Read the token permissions of every stage through the given cache, so a header
+         * that has been seen before is not parsed again. Lazy token permissions are never
+         * cached.
+         *
+         * @param tokenPermissionsCache The cache, which can be shared with other pipelines and
+         *                              interceptors of the application
+         * @return This builder
+         */
+        public Builder tokenPermissionsCache(TokenPermissionsCache tokenPermissionsCache) {
+            this.tokenPermissionsCache = Objects.requireNonNull(tokenPermissionsCache,
+                    "<tokenPermissionsCache> must not be null");
+            return this;
+        }
+
+        /**
+         * The checks of {@link UserAuthenticationInterceptor}: requests with one of the
+         * external methods need an identity of an allowed type, other requests need to be
+         * from an internal user as checked by {@link #internalUser()}
+         *
+         * @param externalMethods           The HTTP methods open to external users
+         * @param otherAllowedIdentityTypes The identity types allowed on the external
+         *                                  methods besides API keys
+         * @return This builder
+         */
+        public Builder userAuthentication(List<String> externalMethods, List<String> otherAllowedIdentityTypes) {
+            final Set<String> external = new HashSet<>(externalMethods);
+            final Set<String> validTypes = new HashSet<>(otherAllowedIdentityTypes);
+            validTypes.add(SecurityConstants.API_KEY_IDENTITY_TYPE);
+            stages.add(new Stage("userAuthentication", exchange -> {
+                if (!external.contains(exchange.request.getMethod())) {
+                    return isInternalUser(exchange);
+                }
+                if (exchange.context.identity() == null) {
+                    return exchange.deny(HttpServletResponse.SC_UNAUTHORIZED, "no authorised identity");
+                }
+                if (!validTypes.contains(exchange.context.identityType())) {
+                    return exchange.deny(HttpServletResponse.SC_FORBIDDEN,
+                            "invalid identity type [" + exchange.context.identityType() + "]");
+                }
+                return true;
+            }));
+            return this;
+        }
+
+        /**
+         * The checks of {@link InternalUserInterceptor}: the request needs to be from an API
+         * key with the internal user role
+         *
+         * @return This builder
+         */
+        public Builder internalUser() {
+            stages.add(new Stage("internalUser", SecurityPipeline::isInternalUser));
+            return this;
+        }
+
+        /**
+         * The check of {@link RolePermissionInterceptor}: the request needs to be from an
+         * oauth2 user with the role
+         *
+         * @param requiredRolePermission The role required
+         * @return This builder
+         */
+        public Builder rolePermission(String requiredRolePermission) {
+            Objects.requireNonNull(requiredRolePermission, "<requiredRolePermission> must not be null");
+            stages.add(new Stage("rolePermission", exchange -> {
+                if (!exchange.context.isOauth2User()) {
+                    return exchange.deny(HttpServletResponse.SC_FORBIDDEN, "Identity type provided was not oauth2");
+                }
+                if (!exchange.context.hasAuthorisedRole(requiredRolePermission)) {
+                    return exchange.deny(HttpServletResponse.SC_FORBIDDEN,
+                            "user does not have the correct role permission");
+                }
+                return true;
+            }));
+            return this;
+        }
+
+        /**
+         * What {@link TokenPermissionsInterceptor} does: parse the token permissions and store
+         * them in the request, for the handler to read with
+         * {@link AuthorisationUtil#getTokenPermissions(HttpServletRequest)}. The permission
+         * stages do this themselves when needed, so this stage is only required when no
+         * permission stage is used.
+         *
+         * @param lazyTokenPermissions If true a {@link LazyTokenPermissions} is stored
+         * @return This builder
+         */
+        public Builder tokenPermissions(boolean lazyTokenPermissions) {
+            usesTokenPermissions = true;
+            stages.add(new Stage("tokenPermissions", exchange -> {
+                exchange.store(lazyTokenPermissions
+                        ? new LazyTokenPermissions(exchange.context.authorisedTokenPermissions(),
+                                TokenPermissionsParser.getDefault())
+                        : exchange.parseTokenPermissions());
+                return true;
+            }));
+            return this;
+        }
+
+        /**
+         * @see #tokenPermissions(boolean)
+         */
+        public Builder tokenPermissions() {
+            return tokenPermissions(false);
+        }
+
+        /**
+         * The check of {@link CRUDAuthenticationInterceptor}
+         *
+         * @param permissionKey        The expected permission key
+         * @param ignoreAPIKeyRequests If true any API key traffic is let through
+         * @param ignoredHttpMethods   The HTTP methods for which the check is not made
+         * @return This builder
+         */
+        public Builder crudPermission(Permission.Key permissionKey, boolean ignoreAPIKeyRequests,
+                String... ignoredHttpMethods) {
+            final CRUDAuthenticationInterceptor crud =
+                    new CRUDAuthenticationInterceptor(permissionKey, ignoreAPIKeyRequests, ignoredHttpMethods);
+            usesTokenPermissions = true;
+            stages.add(new Stage("crudPermission", exchange -> {
+                final String value = crud.getRequiredValue(exchange.request.getMethod());
+                if (value == null || crud.isIgnoreAPIKeyRequests() && exchange.context.isAPIKey()) {
+                    return true;
+                }
+                if (!exchange.tokenPermissions().hasPermission(crud.getPermissionKey(), value)) {
+                    return exchange.deny(HttpServletResponse.SC_UNAUTHORIZED,
+                            "missing permission " + crud.getPermissionKey() + "=" + value);
+                }
+                return true;
+            }));
+            return this;
+        }
+
+        /**
+         * @see #crudPermission(Permission.Key, boolean, String...)
+         */
+        public Builder crudPermission(Permission.Key permissionKey, String... ignoredHttpMethods) {
+            return crudPermission(permissionKey, false, ignoredHttpMethods);
+        }
+
+        /**
+         * The check of {@link MappablePermissionsInterceptor}
+         *
+         * @param permissionKey        The expected permission key
+         * @param ignoreAPIKeyRequests If true any API key traffic is let through
+         * @param permissionsMapping   The mapping from HTTP method to allowed permissions
+         * @param ignoredHttpMethods   The HTTP methods for which the check is not made
+         * @return This builder
+         */
+        public Builder mappedPermission(Permission.Key permissionKey, boolean ignoreAPIKeyRequests,
+                PermissionsMapping permissionsMapping, String... ignoredHttpMethods) {
+            final MappablePermissionsInterceptor mappable = new MappablePermissionsInterceptor(permissionKey,
+                    ignoreAPIKeyRequests, permissionsMapping, ignoredHttpMethods);
+            usesTokenPermissions = true;
+            stages.add(new Stage("mappedPermission", exchange -> {
+                final PermissionSet expected = mappable.getPermissionSet(exchange.request.getMethod());
+                if (expected == null || mappable.isIgnoreAPIKeyRequests() && exchange.context.isAPIKey()) {
+                    return true;
+                }
+                if (!exchange.tokenPermissions().hasAnyOf(expected)) {
+                    return exchange.deny(HttpServletResponse.SC_UNAUTHORIZED, "missing any of " + expected);
+                }
+                return true;
+            }));
+            return this;
+        }
+
+        /**
+         * @see #mappedPermission(Permission.Key, boolean, PermissionsMapping, String...)
+         */
+        public Builder mappedPermission(Permission.Key permissionKey, PermissionsMapping permissionsMapping,
+                String... ignoredHttpMethods) {
+            return mappedPermission(permissionKey, false, permissionsMapping, ignoredHttpMethods);
+        }
+
+        public SecurityPipeline build() {
+            return new SecurityPipeline(this);
+        }
+    }
+
+    private static boolean isInternalUser(Exchange exchange) {
+        final EricSecurityContext context = exchange.context;
+        if (context.identity() == null) {
+            return exchange.deny(HttpServletResponse.SC_UNAUTHORIZED, "no authorised identity");
+        }
+        if (!context.isAPIKey()) {
+            return exchange.deny(HttpServletResponse.SC_FORBIDDEN,
+                    "invalid identity type [" + context.identityType() + "]");
+        }
+        if (!context.hasInternalUserRole()) {
+            return exchange.deny(HttpServletResponse.SC_FORBIDDEN, "user does not have internal user privileges");
+        }
+        return true;
+    }
+}
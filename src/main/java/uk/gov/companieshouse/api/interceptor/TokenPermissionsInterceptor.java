@@ -1,7 +1,6 @@
 package uk.gov.companieshouse.api.interceptor;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -10,33 +9,67 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
+import uk.gov.companieshouse.api.util.security.EricSecurityContext;
 import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.LazyTokenPermissions;
 import uk.gov.companieshouse.api.util.security.TokenPermissions;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.api.util.security.TokenPermissionsCache;
 
 /**
  * Creates a TokenPermissions object and sets it into the request. 
  * It can then be read by using {@link AuthorisationUtil.getTokenPermissions(request)}
+ * An {@link EricSecurityContext} holding it is also set into the request, so the other
+ * ERIC headers are served by {@link AuthorisationUtil} without being read again.
  */
 @Component
 public class TokenPermissionsInterceptor implements HandlerInterceptor {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(String.valueOf(TokenPermissionsInterceptor.class));
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(TokenPermissionsInterceptor.class));
+
+    private final boolean lazyTokenPermissions;
+    private final TokenPermissionsCache tokenPermissionsCache;
+
+    public TokenPermissionsInterceptor() {
+        this(false);
+    }
+
+    /**
+     * @param lazyTokenPermissions If true a {@link LazyTokenPermissions} is stored in the
+     *         request, which only reads the values of a key when that key is first checked.
+     *         Useful for routes that check a single key of heavily-scoped tokens.
+     */
+    public TokenPermissionsInterceptor(boolean lazyTokenPermissions) {
+        this.lazyTokenPermissions = lazyTokenPermissions;
+        this.tokenPermissionsCache = null;
+    }
+
+    /**
+     * @param tokenPermissionsCache The cache to read token permissions through, which can be
+     *         shared with other interceptors and pipelines of the application
+     */
+    public TokenPermissionsInterceptor(TokenPermissionsCache tokenPermissionsCache) {
+        this.lazyTokenPermissions = false;
+        this.tokenPermissionsCache = Objects.requireNonNull(tokenPermissionsCache,
+                "<tokenPermissionsCache> must not be null");
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
             throws InvalidTokenPermissionException {
-        Map<String, Object> loggedData = new HashMap<>();
-        LOGGER.debugRequest(request, "Create TokenPermissions and store it in request", loggedData);
+        LOGGER.debugRequest(request, "Create TokenPermissions and store it in request");
 
         TokenPermissions tokenPermissions = readTokenPermissions(request);
         InterceptorHelper.storeTokenPermissionsInRequest(tokenPermissions, request);
+        EricSecurityContext.storeInRequest(EricSecurityContext.read(request, tokenPermissions), request);
         return true;
     }
 
     TokenPermissions readTokenPermissions(HttpServletRequest request) throws InvalidTokenPermissionException {
-        return InterceptorHelper.readTokenPermissions(request);
+        if (lazyTokenPermissions) {
+            return new LazyTokenPermissions(request);
+        }
+        return InterceptorHelper.readTokenPermissions(request, tokenPermissionsCache);
     }
 
     @Override
@@ -44,6 +77,7 @@ public class TokenPermissionsInterceptor implements HandlerInterceptor {
             ModelAndView modelAndView) throws Exception {
         // cleanup request to ensure it is never leaked into another request
         InterceptorHelper.storeTokenPermissionsInRequest(null, request);
+        EricSecurityContext.storeInRequest(null, request);
     }
 
 }
\ No newline at end of file
@@ -16,23 +16,22 @@ import uk.gov.companieshouse.api.error.ApiErrorResponseException;
 import uk.gov.companieshouse.api.handler.exception.URIValidationException;
 import uk.gov.companieshouse.api.model.transaction.Transaction;
 import uk.gov.companieshouse.api.sdk.ApiClientService;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 import uk.gov.companieshouse.sdk.manager.ApiSdkManager;
 
 public class TransactionInterceptor implements HandlerInterceptor {
 
-    private final Logger LOGGER;
+    private final SecurityLogger LOGGER;
 
     @Autowired
     private ApiClientService apiClientService;
 
     public TransactionInterceptor() {
-        LOGGER = LoggerFactory.getLogger(String.valueOf(TransactionInterceptor.class));
+        LOGGER = SecurityLogger.getLogger(String.valueOf(TransactionInterceptor.class));
     }
 
     public TransactionInterceptor(String loggingNamespace) {
-        LOGGER = LoggerFactory.getLogger(loggingNamespace);
+        LOGGER = SecurityLogger.getLogger(loggingNamespace);
     }
 
     /**
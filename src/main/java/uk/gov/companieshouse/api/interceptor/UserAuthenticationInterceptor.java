@@ -12,10 +12,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 import uk.gov.companieshouse.api.util.security.AuthorisationUtil;
 import uk.gov.companieshouse.api.util.security.SecurityConstants;
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
 
 @Component
 public class UserAuthenticationInterceptor implements HandlerInterceptor {
@@ -23,14 +22,14 @@ public class UserAuthenticationInterceptor implements HandlerInterceptor {
     private InternalUserInterceptor internalUserInterceptor;
     private List<String> otherAllowedIdentityTypes;
     private List<String> externalMethods;
-    private Logger logger;
+    private SecurityLogger logger;
 
     @Autowired
     public UserAuthenticationInterceptor(List<String> externalMethods, List<String> otherAllowedIdentityTypes, InternalUserInterceptor internalUserInterceptor) {
         this.otherAllowedIdentityTypes = otherAllowedIdentityTypes;
         this.externalMethods = externalMethods;
         this.internalUserInterceptor = internalUserInterceptor;
-        logger = LoggerFactory.getLogger(String.valueOf(UserAuthenticationInterceptor.class));
+        logger = SecurityLogger.getLogger(String.valueOf(UserAuthenticationInterceptor.class));
     }
 
     @Override
@@ -47,7 +46,7 @@ public class UserAuthenticationInterceptor implements HandlerInterceptor {
     private boolean hasAuthorisedIdentity(HttpServletRequest request, HttpServletResponse response) {
         final String authorisedUser = AuthorisationUtil.getAuthorisedIdentity(request); 
         if (authorisedUser == null) {
-            logger.debugRequest(request, "no authorised identity", null);
+            logger.debugRequest(request, "no authorised identity");
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return false;
         }
@@ -58,7 +57,7 @@ public class UserAuthenticationInterceptor implements HandlerInterceptor {
             List<String> validIdentityTypes) {
         final String identityType = AuthorisationUtil.getAuthorisedIdentityType(request);
         if ( !validIdentityTypes.contains(identityType)) {
-            logger.debugRequest(request, "invalid identity type [" + identityType + "]", null);
+            logger.debugRequest(request, () -> "invalid identity type [" + identityType + "]");
             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
             return false;
         }
@@ -0,0 +1,118 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of the application tokens that {@link CisAppTokenValidator} has fully
+ * validated, valid until the expiration time of each token.
+ * <p>
+ * Callers reuse the same access token until it expires, so a repeat token is accepted
+ * by a hash lookup and an expiry check instead of a parse and an RSA signature
+ * verification. Tokens are keyed by the first 128 bits of their SHA-256 digest rather
+ * than held as strings. Tokens that fail validation are never cached.
+ */
+final class VerifiedTokenCache {
+
+    /**
+     * Default maximum number of distinct tokens held
+     */
+    static final long DEFAULT_MAXIMUM_SIZE = 10_000L;
+
+    private final Cache<TokenHash, Long> cache;
+
+    VerifiedTokenCache(long maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("<maximumSize> must be positive");
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilExpirationTime())
+                .build();
+    }
+
+    /**
+     * @param tokenHash The hash of the token
+     * @param now       The current time in milliseconds
+     * @return True if the token has been validated and has not expired yet
+     */
+    boolean isVerified(TokenHash tokenHash, long now) {
+        final Long expirationTime = cache.getIfPresent(tokenHash);
+        return expirationTime != null && now < expirationTime;
+    }
+
+    /**
+     * Record a token that has been fully validated
+     *
+     * @param tokenHash      The hash of the token
+     * @param expirationTime The expiration time of the token in milliseconds
+     */
+    void put(TokenHash tokenHash, long expirationTime) {
+        cache.put(tokenHash, expirationTime);
+    }
+
+    /**
+     * @return The approximate number of tokens held
+     */
+    long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Remove all cached tokens
+     */
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * The first 128 bits of the SHA-256 digest of a token
+     */
+    record TokenHash(long high, long low) {
+
+        static TokenHash of(String token) {
+            final byte[] digest = sha256().digest(token.getBytes(StandardCharsets.UTF_8));
+            final ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new TokenHash(buffer.getLong(), buffer.getLong());
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Evicts each token once its expiration time has passed
+     */
+    private static final class UntilExpirationTime implements Expiry<TokenHash, Long> {
+
+        @Override
+        public long expireAfterCreate(TokenHash tokenHash, Long expirationTime, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, expirationTime - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenHash tokenHash, Long expirationTime, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(tokenHash, expirationTime, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenHash tokenHash, Long expirationTime, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package uk.gov.companieshouse.api.util.logging;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Logger used by the interceptors and security utilities of this library.
+ * <p>
+ * Debug messages and log data are passed as suppliers and are only built when debug is
+ * enabled for the namespace, so that requests pay nothing for debug logging when it is
+ * switched off. The level is read from the SLF4J logger of the same namespace on each
+ * call, so changes made at runtime are picked up. Other levels are passed straight to
+ * the structured logger.
+ */
+public final class SecurityLogger {
+
+    private final Logger logger;
+    private final org.slf4j.Logger levelLogger;
+
+    SecurityLogger(Logger logger, org.slf4j.Logger levelLogger) {
+        this.logger = logger;
+        this.levelLogger = levelLogger;
+    }
+
+    /**
+     * @param namespace The logging namespace
+     * @return A logger for the namespace
+     */
+    public static SecurityLogger getLogger(String namespace) {
+        return new SecurityLogger(LoggerFactory.getLogger(namespace), org.slf4j.LoggerFactory.getLogger(namespace));
+    }
+
+    public boolean isDebugEnabled() {
+        return levelLogger.isDebugEnabled();
+    }
+
+    /**
+     * @param message The message, a constant
+     */
+    public void debug(String message) {
+        if (isDebugEnabled()) {
+            logger.debug(message);
+        }
+    }
+
+    /**
+     * @param message Supplies the message, only called if debug is enabled
+     */
+    public void debug(Supplier<String> message) {
+        if (isDebugEnabled()) {
+            logger.debug(message.get());
+        }
+    }
+
+    /**
+     * @param request The HTTP request
+     * @param message The message, a constant
+     */
+    public void debugRequest(HttpServletRequest request, String message) {
+        if (isDebugEnabled()) {
+            logger.debugRequest(request, message, null);
+        }
+    }
+
+    /**
+     * @param request The HTTP request
+     * @param message Supplies the message, only called if debug is enabled
+     */
+    public void debugRequest(HttpServletRequest request, Supplier<String> message) {
+        if (isDebugEnabled()) {
+            logger.debugRequest(request, message.get(), null);
+        }
+    }
+
+    /**
+     * @param request The HTTP request
+     * @param message The message, a constant
+     * @param data    Supplies the log data, only called if debug is enabled
+     */
+    public void debugRequest(HttpServletRequest request, String message, Supplier<Map<String, Object>> data) {
+        if (isDebugEnabled()) {
+            logger.debugRequest(request, message, data.get());
+        }
+    }
+
+    public void error(String message, Map<String, Object> data) {
+        logger.error(message, data);
+    }
+
+    public void errorRequest(HttpServletRequest request, String message, Map<String, Object> data) {
+        logger.errorRequest(request, message, data);
+    }
+
+    public void errorRequest(HttpServletRequest request, Exception exception, Map<String, Object> data) {
+        logger.errorRequest(request, exception, data);
+    }
+}
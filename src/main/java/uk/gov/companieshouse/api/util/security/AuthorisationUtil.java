@@ -6,25 +6,44 @@ import java.util.Optional;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+/**
+ * Reads the ERIC headers of a request. When an {@link EricSecurityContext} has been stored in
+ * the request, by {@link uk.gov.companieshouse.api.interceptor.SecurityPipeline} or
+ * {@link uk.gov.companieshouse.api.interceptor.TokenPermissionsInterceptor}, the values are
+ * served from it. Otherwise they are read from the headers on each call, as the interceptors
+ * used on their own do.
+ */
 public final class AuthorisationUtil {
     private AuthorisationUtil() {
         // Hidden constructor for utility class
     }
 
     public static String getAuthorisedIdentity(HttpServletRequest request) {
-        return RequestUtils.getRequestHeader(request, EricConstants.ERIC_IDENTITY);
+        final EricSecurityContext context = getStoredContext(request);
+        return context != null
+                ? context.identity()
+                : RequestUtils.getRequestHeader(request, EricConstants.ERIC_IDENTITY);
     }
 
     public static String getAuthorisedIdentityType(HttpServletRequest request) {
-        return RequestUtils.getRequestHeader(request, EricConstants.ERIC_IDENTITY_TYPE);
+        final EricSecurityContext context = getStoredContext(request);
+        return context != null
+                ? context.identityType()
+                : RequestUtils.getRequestHeader(request, EricConstants.ERIC_IDENTITY_TYPE);
     }
 
     public static String getAuthorisedKeyRoles(HttpServletRequest request) {
-        return RequestUtils.getRequestHeader(request, EricConstants.ERIC_AUTHORISED_KEY_ROLES);
+        final EricSecurityContext context = getStoredContext(request);
+        return context != null
+                ? context.authorisedKeyRoles()
+                : RequestUtils.getRequestHeader(request, EricConstants.ERIC_AUTHORISED_KEY_ROLES);
     }
 
     protected static String getAuthorisedTokenPermissions(HttpServletRequest request) {
-        return RequestUtils.getRequestHeader(request, EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS);
+        final EricSecurityContext context = getStoredContext(request);
+        return context != null
+                ? context.authorisedTokenPermissions()
+                : RequestUtils.getRequestHeader(request, EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS);
     }
 
     public static boolean hasInternalUserRole(HttpServletRequest request) {
@@ -36,11 +55,39 @@ public final class AuthorisationUtil {
         return Optional.ofNullable(value instanceof TokenPermissions ? (TokenPermissions) value : null);
     }
 
+    /**
+     * @param request The HTTP request
+     * @return The {@code ERIC-Authorised-Roles} header split on spaces. When an
+     *         {@link EricSecurityContext} is stored in the request the list is unmodifiable,
+     *         and empty rather than failing when the header is not set
+     */
     public static List<String> getAuthorisedRoles(HttpServletRequest request) {
+        final EricSecurityContext context = getStoredContext(request);
+        if (context != null) {
+            return context.authorisedRoles();
+        }
         return Arrays.asList(RequestUtils.getRequestHeader(request, EricConstants.ERIC_AUTHORISED_ROLES).split(" "));
     }
 
+    /**
+     * @param request The HTTP request
+     * @param role    The role to look for
+     * @return true if the role is one of the authorised roles of the request
+     */
+    public static boolean hasAuthorisedRole(HttpServletRequest request, String role) {
+        final EricSecurityContext context = getStoredContext(request);
+        if (context != null) {
+            return context.hasAuthorisedRole(role);
+        }
+        final String roles = RequestUtils.getRequestHeader(request, EricConstants.ERIC_AUTHORISED_ROLES);
+        return roles != null && Arrays.asList(roles.split(" ")).contains(role);
+    }
+
     public static boolean isOauth2User(final HttpServletRequest request){
+        final EricSecurityContext context = getStoredContext(request);
+        if (context != null) {
+            return context.isOauth2User();
+        }
         final String identity = getAuthorisedIdentity(request);
         final String identityType = getAuthorisedIdentityType(request);
         
@@ -50,4 +97,11 @@ public final class AuthorisationUtil {
         return false;
     }
 
+    static EricSecurityContext getStoredContext(HttpServletRequest request) {
+        final Object value = request == null
+                ? null
+                : request.getAttribute(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY);
+        return value instanceof EricSecurityContext context ? context : null;
+    }
+
 }
@@ -0,0 +1,141 @@
+package uk.gov.companieshouse.api.util.security;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The ERIC headers of a request, parsed once. {@link uk.gov.companieshouse.api.interceptor.SecurityPipeline}
+ * and {@link uk.gov.companieshouse.api.interceptor.TokenPermissionsInterceptor} store it in the
+ * request with {@link #storeInRequest(EricSecurityContext, HttpServletRequest)}, after which
+ * the reads of {@link AuthorisationUtil} are served from it instead of the headers. Without
+ * one of them, the other interceptors read the headers on each call as before.
+ *
+ * @param identity                   The {@code ERIC-Identity} header
+ * @param identityType               The {@code ERIC-Identity-Type} header
+ * @param authorisedKeyRoles         The {@code ERIC-Authorised-Key-Roles} header
+ * @param authorisedRoles            The {@code ERIC-Authorised-Roles} header split on spaces,
+ *                                   duplicates included, unmodifiable and empty if it is not set
+ * @param authorisedTokenPermissions The {@code ERIC-Authorised-Token-Permissions} header
+ * @param tokenPermissions           The parsed token permissions, null if they have not been
+ *                                   parsed yet
+ */
+public record EricSecurityContext(String identity, String identityType, String authorisedKeyRoles,
+        List<String> authorisedRoles, String authorisedTokenPermissions, TokenPermissions tokenPermissions) {
+
+    public EricSecurityContext {
+        authorisedRoles = authorisedRoles == null ? List.of() : List.copyOf(authorisedRoles);
+    }
+
+    /**
+     * Parse the ERIC headers of the request, including the token permissions
+     *
+     * @param request The HTTP request
+     * @return The context of the request
+     * @throws InvalidTokenPermissionException If the token permissions header is not valid
+     */
+    public static EricSecurityContext read(HttpServletRequest request) throws InvalidTokenPermissionException {
+        final String authorisedTokenPermissions = RequestUtils.getRequestHeader(request,
+                EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS);
+        return read(request, authorisedTokenPermissions, parse(authorisedTokenPermissions));
+    }
+
+    /**
+     * Read the ERIC headers of the request without parsing the token permissions, which are
+     * parsed when first needed by {@link #parseTokenPermissions()}
+     *
+     * @param request The HTTP request
+     * @return The context of the request
+     */
+    public static EricSecurityContext readHeaders(HttpServletRequest request) {
+        return read(request, null);
+    }
+
+    /**
+     * Parse the ERIC headers of the request, with token permissions that have already been
+     * parsed
+     *
+     * @param request          The HTTP request
+     * @param tokenPermissions The token permissions of the request
+     * @return The context of the request
+     */
+    public static EricSecurityContext read(HttpServletRequest request, TokenPermissions tokenPermissions) {
+        final String authorisedTokenPermissions = RequestUtils.getRequestHeader(request,
+                EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS);
+        return read(request, authorisedTokenPermissions, tokenPermissions);
+    }
+
+    private static EricSecurityContext read(HttpServletRequest request, String authorisedTokenPermissions,
+            TokenPermissions tokenPermissions) {
+        final String roles = RequestUtils.getRequestHeader(request, EricConstants.ERIC_AUTHORISED_ROLES);
+        return new EricSecurityContext(
+                RequestUtils.getRequestHeader(request, EricConstants.ERIC_IDENTITY),
+                RequestUtils.getRequestHeader(request, EricConstants.ERIC_IDENTITY_TYPE),
+                RequestUtils.getRequestHeader(request, EricConstants.ERIC_AUTHORISED_KEY_ROLES),
+                roles == null ? null : Arrays.asList(roles.split(" ")),
+                authorisedTokenPermissions,
+                tokenPermissions);
+    }
+
+    private static TokenPermissions parse(String authorisedTokenPermissions) throws InvalidTokenPermissionException {
+        return new TokenPermissionsImpl(authorisedTokenPermissions, TokenPermissionsParser.getDefault());
+    }
+
+    /**
+     * @return The token permissions of the context, parsed from the token permissions header
+     *         if they have not been parsed yet
+     * @throws InvalidTokenPermissionException If the token permissions header is not valid
+     */
+    public TokenPermissions parseTokenPermissions() throws InvalidTokenPermissionException {
+        return tokenPermissions != null ? tokenPermissions : parse(authorisedTokenPermissions);
+    }
+
+    /**
+     * @param cache The cache to look the token permissions header up in, can be null
+     * @return The token permissions of the context, looked up in the cache if they have not
+     *         been parsed yet
+     * @throws InvalidTokenPermissionException If the token permissions header is not valid
+     */
+    public TokenPermissions parseTokenPermissions(TokenPermissionsCache cache) throws InvalidTokenPermissionException {
+        if (tokenPermissions != null || cache == null) {
+            return parseTokenPermissions();
+        }
+        return cache.get(authorisedTokenPermissions);
+    }
+
+    /**
+     * @param request The HTTP request
+     * @return The context stored in the request, if any
+     */
+    public static Optional<EricSecurityContext> getFromRequest(HttpServletRequest request) {
+        return Optional.ofNullable(AuthorisationUtil.getStoredContext(request));
+    }
+
+    /**
+     * Store the given context in the given request
+     *
+     * @param context It can be null if we want to remove the existing one
+     * @param request The HTTP request
+     */
+    public static void storeInRequest(EricSecurityContext context, HttpServletRequest request) {
+        request.setAttribute(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY, context);
+    }
+
+    public boolean isAPIKey() {
+        return SecurityConstants.API_KEY_IDENTITY_TYPE.equals(identityType);
+    }
+
+    public boolean isOauth2User() {
+        return identity != null && identityType != null && identityType.contains("oauth2");
+    }
+
+    public boolean hasInternalUserRole() {
+        return SecurityConstants.INTERNAL_USER_ROLE.equals(authorisedKeyRoles);
+    }
+
+    public boolean hasAuthorisedRole(String role) {
+        return authorisedRoles.contains(role);
+    }
+}
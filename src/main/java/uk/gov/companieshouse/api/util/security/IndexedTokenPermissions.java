@@ -0,0 +1,110 @@
+package uk.gov.companieshouse.api.util.security;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable {@link TokenPermissions} indexed by {@link PermissionKeyRegistry} id, which
+ * for the built-in {@link Permission.Key} constants is their ordinal.
+ * <p>
+ * The {@link Permission.Value} constants granted for a key are held as a bit mask, so
+ * the common CRUD checks are an array read and a bit test. Any other values, such as
+ * company or ACSP numbers, are kept alongside in per key {@link ScopedValues}, whose
+ * storage adapts to the number of values. Keys in the header that are not registered
+ * when the object is built can never be checked and are dropped.
+ */
+public final class IndexedTokenPermissions implements TokenPermissions {
+
+    private final int[] valueMasks;
+    private final ScopedValues[] otherValues;
+
+    /**
+     * @param permissions The parsed header, see {@link TokenPermissionsParser#parse(String)}
+     */
+    public IndexedTokenPermissions(Map<String, List<String>> permissions) {
+        final int size = PermissionKeyRegistry.size();
+        valueMasks = new int[size];
+        otherValues = new ScopedValues[size];
+
+        for (Map.Entry<String, List<String>> entry : permissions.entrySet()) {
+            final int index = PermissionKeyRegistry.getId(entry.getKey());
+            if (index == PermissionKeyRegistry.UNKNOWN || index >= size) {
+                continue;
+            }
+            final List<String> others = new ArrayList<>();
+            for (String value : entry.getValue()) {
+                final int mask = Permission.Value.toMask(value);
+                if (mask == 0) {
+                    others.add(value);
+                } else {
+                    valueMasks[index] |= mask;
+                }
+            }
+            if (!others.isEmpty()) {
+                otherValues[index] = ScopedValues.of(others);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasPermission(Permission.Key key, String value) {
+        return hasPermission(key.ordinal(), value);
+    }
+
+    @Override
+    public boolean hasPermission(int keyId, String value) {
+        if (keyId < 0 || keyId >= valueMasks.length) {
+            return false;
+        }
+        final int mask = Permission.Value.toMask(value);
+        if (mask != 0) {
+            return (valueMasks[keyId] & mask) != 0;
+        }
+        final ScopedValues others = otherValues[keyId];
+        return others != null && others.contains(value);
+    }
+
+    @Override
+    public boolean hasAnyOf(PermissionSet permissions) {
+        final int index = permissions.getKey().ordinal();
+        return (valueMasks[index] & permissions.getMask()) != 0
+                || ScopedValues.containsAny(otherValues[index], permissions.otherValues());
+    }
+
+    @Override
+    public boolean hasAllOf(PermissionSet permissions) {
+        final int index = permissions.getKey().ordinal();
+        final int mask = permissions.getMask();
+        return (valueMasks[index] & mask) == mask
+                && ScopedValues.containsAll(otherValues[index], permissions.otherValues());
+    }
+
+    @Override
+    public String toString() {
+        final Map<String, List<String>> permissions = new LinkedHashMap<>();
+        for (int index = 0; index < valueMasks.length; index++) {
+            final List<String> values = new ArrayList<>();
+            addIfSet(values, valueMasks[index], Permission.Value.CREATE_MASK, Permission.Value.CREATE);
+            addIfSet(values, valueMasks[index], Permission.Value.READ_MASK, Permission.Value.READ);
+            addIfSet(values, valueMasks[index], Permission.Value.READ_PROTECTED_MASK,
+                    Permission.Value.READ_PROTECTED);
+            addIfSet(values, valueMasks[index], Permission.Value.UPDATE_MASK, Permission.Value.UPDATE);
+            addIfSet(values, valueMasks[index], Permission.Value.DELETE_MASK, Permission.Value.DELETE);
+            if (otherValues[index] != null) {
+                values.addAll(otherValues[index].toList());
+            }
+            if (!values.isEmpty()) {
+                permissions.put(PermissionKeyRegistry.getName(index), values);
+            }
+        }
+        return permissions.toString();
+    }
+
+    private static void addIfSet(List<String> values, int valueMask, int mask, String value) {
+        if ((valueMask & mask) != 0) {
+            values.add(value);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package uk.gov.companieshouse.api.util.security;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * {@link TokenPermissions} that keeps the raw ERIC authorised token permissions header
+ * and only reads the values of a key the first time that key is checked.
+ * <p>
+ * The whole header is validated when the instance is created, in a single scan linear in its
+ * length, with the same rules and {@link InvalidTokenPermissionException} behaviour as
+ * {@link TokenPermissionsImpl}. Only the values are deferred: none are materialised until
+ * they are needed, and the values found for each key are memoised, so the cost of the
+ * checks depends on the keys actually checked rather than on the size of the whole header.
+ * <p>
+ * Instances are intended to live for a single request and are not thread safe.
+ */
+public final class LazyTokenPermissions implements TokenPermissions {
+
+    private static final String[] CRUD_VALUES = {
+            Permission.Value.CREATE,
+            Permission.Value.READ,
+            Permission.Value.READ_PROTECTED,
+            Permission.Value.UPDATE,
+            Permission.Value.DELETE
+    };
+
+    private final String header;
+    private final boolean[] resolved;
+    private final int[] valueMasks;
+    private final ScopedValues[] otherValues;
+
+    public LazyTokenPermissions(HttpServletRequest request) throws InvalidTokenPermissionException {
+        this(AuthorisationUtil.getAuthorisedTokenPermissions(request), TokenPermissionsParser.getDefault());
+    }
+
+    /**
+     * @param authorisedTokenPermissions The ERIC authorised token permissions header
+     * @param parser                     The parser used to validate the header
+     * @throws InvalidTokenPermissionException If the header is not valid
+     */
+    public LazyTokenPermissions(String authorisedTokenPermissions, TokenPermissionsParser parser)
+            throws InvalidTokenPermissionException {
+        parser.validate(authorisedTokenPermissions);
+        this.header = StringUtils.isBlank(authorisedTokenPermissions) ? null : authorisedTokenPermissions;
+        final int size = PermissionKeyRegistry.size();
+        this.resolved = new boolean[size];
+        this.valueMasks = new int[size];
+        this.otherValues = new ScopedValues[size];
+    }
+
+    @Override
+    public boolean hasPermission(Permission.Key key, String value) {
+        return hasPermission(key.ordinal(), value);
+    }
+
+    @Override
+    public boolean hasPermission(int keyId, String value) {
+        if (keyId < 0 || keyId >= resolved.length) {
+            return false;
+        }
+        if (!resolved[keyId]) {
+            resolve(keyId);
+        }
+        final int mask = Permission.Value.toMask(value);
+        if (mask != 0) {
+            return (valueMasks[keyId] & mask) != 0;
+        }
+        final ScopedValues others = otherValues[keyId];
+        return others != null && others.contains(value);
+    }
+
+    @Override
+    public boolean hasAnyOf(PermissionSet permissions) {
+        final int index = permissions.getKey().ordinal();
+        if (!resolved[index]) {
+            resolve(index);
+        }
+        return (valueMasks[index] & permissions.getMask()) != 0
+                || ScopedValues.containsAny(otherValues[index], permissions.otherValues());
+    }
+
+    @Override
+    public boolean hasAllOf(PermissionSet permissions) {
+        final int index = permissions.getKey().ordinal();
+        if (!resolved[index]) {
+            resolve(index);
+        }
+        final int mask = permissions.getMask();
+        return (valueMasks[index] & mask) == mask
+                && ScopedValues.containsAll(otherValues[index], permissions.otherValues());
+    }
+
+    private void resolve(int index) {
+        resolved[index] = true;
+        if (header == null) {
+            return;
+        }
+        final List<String> others = new ArrayList<>(0);
+        TokenPermissionsParser.forEachValue(header, PermissionKeyRegistry.getName(index), (start, end) -> {
+            final int mask = crudMask(start, end);
+            if (mask == 0) {
+                others.add(header.substring(start, end));
+            } else {
+                valueMasks[index] |= mask;
+            }
+        });
+        if (!others.isEmpty()) {
+            otherValues[index] = ScopedValues.of(others);
+        }
+    }
+
+    /**
+     * @return The bit flag of the {@link Permission.Value} constant found between start
+     *         and end in the header, or 0 if the value is not one of the constants
+     */
+    private int crudMask(int start, int end) {
+        final int valueLength = end - start;
+        for (String crudValue : CRUD_VALUES) {
+            if (crudValue.length() == valueLength && header.regionMatches(start, crudValue, 0, valueLength)) {
+                return Permission.Value.toMask(crudValue);
+            }
+        }
+        return 0;
+    }
+}
@@ -128,12 +128,33 @@ public class Permission {
          */
         USER_PSC_EXTENSION("user_psc_extension");
 
+        private static final Key[] KEYS_BY_ID = values();
+
         private final String stringValue;
 
         Key(final String permissionKey) {
             stringValue = permissionKey;
         }
 
+        /**
+         * Find the key for the name used in the token permissions header
+         *
+         * @param permissionKey The key as it appears in the header, e.g. "user_profile"
+         * @return The matching key or null if the key is unknown
+         */
+        public static Key fromString(final String permissionKey) {
+            return byId(PermissionKeyRegistry.getId(permissionKey));
+        }
+
+        /**
+         * @param id The {@link PermissionKeyRegistry} id of a key
+         * @return The built-in key with the id or null if the id is unknown or belongs to a
+         *         registered key
+         */
+        static Key byId(final int id) {
+            return id >= 0 && id < KEYS_BY_ID.length ? KEYS_BY_ID[id] : null;
+        }
+
         @Override
         public String toString() {
             return stringValue;
@@ -161,10 +182,63 @@ public class Permission {
          * Value for resource deletion permissions
          */
         public static final String DELETE = "delete";
-        
+
+        /**
+         * Bit flags for each of the values above, used to hold the values granted
+         * for a key in a single int
+         */
+        public static final int CREATE_MASK = 1;
+        public static final int READ_MASK = 1 << 1;
+        public static final int READ_PROTECTED_MASK = 1 << 2;
+        public static final int UPDATE_MASK = 1 << 3;
+        public static final int DELETE_MASK = 1 << 4;
+
         private Value() {
             // Hide implicit public constructor
         }
+
+        /**
+         * Get the bit flag for one of the values above
+         *
+         * @param value The permission value
+         * @return The bit flag for the value or 0 if it is not one of the constants
+         *         above (e.g. a company number)
+         */
+        @SuppressWarnings("java:S4973") // identity checks are a deliberate fast path for the constants
+        public static int toMask(final String value) {
+            if (value == READ) {
+                return READ_MASK;
+            }
+            if (value == UPDATE) {
+                return UPDATE_MASK;
+            }
+            if (value == CREATE) {
+                return CREATE_MASK;
+            }
+            if (value == DELETE) {
+                return DELETE_MASK;
+            }
+            if (value == READ_PROTECTED) {
+                return READ_PROTECTED_MASK;
+            }
+            if (value == null) {
+                return 0;
+            }
+            switch (value) {
+                case READ:
+                    return READ_MASK;
+                case UPDATE:
+                    return UPDATE_MASK;
+                case CREATE:
+                    return CREATE_MASK;
+                case DELETE:
+                    return DELETE_MASK;
+                case READ_PROTECTED:
+                    return READ_PROTECTED_MASK;
+                default:
+                    return 0;
+            }
+        }
     }
 
 }
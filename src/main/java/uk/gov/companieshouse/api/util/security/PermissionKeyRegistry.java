@@ -0,0 +1,199 @@
+package uk.gov.companieshouse.api.util.security;
+
+import java.util.Arrays;
+
+/**
+ * Registry of the permission keys that can be checked, giving each one a dense integer id.
+ * <p>
+ * The built-in {@link Permission.Key} constants are always registered and their id is their
+ * ordinal. Services can register additional keys at startup with {@link #register(String)}
+ * and then check them with {@link TokenPermissions#hasPermission(int, String)}, getting the
+ * same array indexed lookup as the built-in keys without a release of this library.
+ * <p>
+ * Resolving a key name to its id goes through a perfect hash table, rebuilt whenever a key
+ * is registered, so a lookup is one hash, one array read and one comparison. The search for
+ * a perfect table is bounded; if none is found the names are placed with linear probing
+ * instead, so lookups probe the following slots until they reach an empty one. Registration
+ * is synchronised and publishes an immutable snapshot, lookups are lock free.
+ */
+public final class PermissionKeyRegistry {
+
+    /**
+     * Returned by the lookups when a name is not registered
+     */
+    public static final int UNKNOWN = -1;
+
+    private static volatile Snapshot snapshot = Snapshot.build(builtInNames(), true);
+
+    private PermissionKeyRegistry() {
+        // Private constructor for utility class
+    }
+
+    /**
+     * Register a permission key, usually at startup before any requests are handled.
+     * Registering a name that is already registered, including a built-in key, returns its
+     * existing id.
+     *
+     * @param name The key as it appears in the token permissions header
+     * @return The id of the key
+     * @throws IllegalArgumentException If the name is empty or contains characters that
+     *                                  cannot appear in a header key
+     */
+    public static synchronized int register(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Permission key name must not be empty");
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (!TokenPermissionsParser.isWordChar(name.charAt(i))) {
+                throw new IllegalArgumentException("Invalid permission key name: " + name);
+            }
+        }
+        final Snapshot current = snapshot;
+        final int existing = current.idOf(name, 0, name.length());
+        if (existing != UNKNOWN) {
+            return existing;
+        }
+        final String[] names = Arrays.copyOf(current.names, current.names.length + 1);
+        names[current.names.length] = name;
+        snapshot = Snapshot.build(names, current.perfect);
+        return current.names.length;
+    }
+
+    /**
+     * @param name The key as it appears in the token permissions header
+     * @return The id of the key or {@link #UNKNOWN} if it is not registered
+     */
+    public static int getId(String name) {
+        return name == null ? UNKNOWN : snapshot.idOf(name, 0, name.length());
+    }
+
+    /**
+     * Resolve a key held in part of a larger string, such as the header, without
+     * extracting it first
+     *
+     * @param source The string holding the key
+     * @param start  The start of the key, inclusive
+     * @param end    The end of the key, exclusive
+     * @return The id of the key or {@link #UNKNOWN} if it is not registered
+     */
+    public static int getId(String source, int start, int end) {
+        return snapshot.idOf(source, start, end);
+    }
+
+    /**
+     * @param id The id of a registered key
+     * @return The key as it appears in the token permissions header
+     * @throws IndexOutOfBoundsException If no key has the id
+     */
+    public static String getName(int id) {
+        return snapshot.names[id];
+    }
+
+    /**
+     * @return The number of registered keys, every id is less than this
+     */
+    public static int size() {
+        return snapshot.names.length;
+    }
+
+    private static String[] builtInNames() {
+        final Permission.Key[] keys = Permission.Key.values();
+        final String[] names = new String[keys.length];
+        for (Permission.Key key : keys) {
+            names[key.ordinal()] = key.toString();
+        }
+        return names;
+    }
+
+    /**
+     * Immutable set of registered names with a collision free hash table over them
+     */
+    private static final class Snapshot {
+        private static final int SEEDS = 256;
+        private static final int MAX_DOUBLINGS = 2;
+
+        private final String[] names;
+        private final int seed;
+        private final int mask;
+        private final int[] slots;
+        private final boolean perfect;
+
+        private Snapshot(String[] names, int seed, int[] slots, boolean perfect) {
+            this.names = names;
+            this.seed = seed;
+            this.mask = slots.length - 1;
+            this.slots = slots;
+            this.perfect = perfect;
+        }
+
+        /**
+         * Search for a seed that places every name in its own slot, doubling the table a
+         * bounded number of times when no seed is found quickly, and fall back to linear
+         * probing when there is still none. Adding names only makes a perfect table harder
+         * to find, so the search is skipped once a previous one has failed
+         *
+         * @param names  The names, their index being their id
+         * @param search Whether to search for a perfect table
+         */
+        static Snapshot build(String[] names, boolean search) {
+            final int initialSize = Integer.highestOneBit(Math.max(names.length, 1)) << 2;
+            final int maxSize = search ? initialSize << MAX_DOUBLINGS : 0;
+            for (int tableSize = initialSize; tableSize <= maxSize; tableSize <<= 1) {
+                for (int seed = 1; seed <= SEEDS; seed++) {
+                    final int[] slots = place(names, seed, tableSize, false);
+                    if (slots != null) {
+                        return new Snapshot(names, seed, slots, true);
+                    }
+                }
+            }
+            return new Snapshot(names, 1, place(names, 1, initialSize, true), false);
+        }
+
+        private static int[] place(String[] names, int seed, int tableSize, boolean probe) {
+            final int[] slots = new int[tableSize];
+            Arrays.fill(slots, UNKNOWN);
+            for (int id = 0; id < names.length; id++) {
+                int slot = hash(names[id], 0, names[id].length(), seed) & (tableSize - 1);
+                while (slots[slot] != UNKNOWN) {
+                    if (!probe) {
+                        return null;
+                    }
+                    slot = (slot + 1) & (tableSize - 1);
+                }
+                slots[slot] = id;
+            }
+            return slots;
+        }
+
+        int idOf(String source, int start, int end) {
+            int slot = hash(source, start, end, seed) & mask;
+            int id;
+            while ((id = slots[slot]) != UNKNOWN) {
+                final String name = names[id];
+                if (name.length() == end - start && source.regionMatches(start, name, 0, name.length())) {
+                    return id;
+                }
+                if (perfect) {
+                    return UNKNOWN;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return UNKNOWN;
+        }
+
+        /**
+         * Polynomial hash whose multiplier is derived from the seed, so names colliding for
+         * one seed, such as names with the same {@link String#hashCode()}, are separated by
+         * another
+         */
+        private static int hash(String source, int start, int end, int seed) {
+            final int multiplier = 31 + (seed << 1);
+            int h = seed;
+            for (int i = start; i < end; i++) {
+                h = h * multiplier + source.charAt(i);
+            }
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
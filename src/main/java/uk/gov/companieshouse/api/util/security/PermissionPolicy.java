@@ -0,0 +1,373 @@
+package uk.gov.companieshouse.api.util.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A permission rule written as a small boolean expression, parsed and compiled once at
+ * startup and then evaluated per request.
+ * <p>
+ * Grammar:
+ * <pre>
+ *     expression := term ( OR term )*
+ *     term       := factor ( AND factor )*
+ *     factor     := NOT factor | '(' expression ')' | condition
+ *     condition  := name '=' value ( ',' value )*
+ * </pre>
+ * where {@code name} is either a {@link Permission.Key} as it appears in the token
+ * permissions header, {@code method} for the HTTP method or {@code identity_type} for
+ * the ERIC identity type. A condition with several values is true when any of them
+ * match. Operators are case insensitive.
+ * <p>
+ * Example: {@code company_officers=update OR (company_pscs=update AND company_status=read)}
+ * <p>
+ * The expression is compiled into a tree of small predicates. Conditions on the same
+ * permission key in an AND or OR are merged into a single
+ * {@link TokenPermissions#hasAllOf(PermissionSet)} or
+ * {@link TokenPermissions#hasAnyOf(PermissionSet)} check and request method and identity
+ * type conditions are evaluated before permission checks, so a complex rule costs a
+ * few branches per request.
+ */
+public final class PermissionPolicy {
+
+    static final String METHOD = "method";
+    static final String IDENTITY_TYPE = "identity_type";
+
+    private final String expression;
+    private final Rule rule;
+
+    private PermissionPolicy(String expression, Rule rule) {
+        this.expression = expression;
+        this.rule = rule;
+    }
+
+    /**
+     * Parse and compile a policy expression
+     *
+     * @param expression The policy expression
+     * @return The compiled policy
+     * @throws IllegalArgumentException If the expression is not valid
+     */
+    public static PermissionPolicy compile(String expression) {
+        Objects.requireNonNull(expression, "<expression> must not be null");
+        final Node node = new Parser(expression).parse();
+        return new PermissionPolicy(expression, node.compile());
+    }
+
+    /**
+     * Evaluate the policy
+     *
+     * @param tokenPermissions The token permissions of the request
+     * @param method           The HTTP method of the request
+     * @param identityType     The ERIC identity type of the request, can be null
+     * @return True if the request satisfies the policy
+     */
+    public boolean test(TokenPermissions tokenPermissions, String method, String identityType) {
+        return rule.test(tokenPermissions, method, identityType);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    @FunctionalInterface
+    private interface Rule {
+        boolean test(TokenPermissions tokenPermissions, String method, String identityType);
+    }
+
+    private static Rule and(Rule first, Rule second) {
+        return (p, m, i) -> first.test(p, m, i) && second.test(p, m, i);
+    }
+
+    private static Rule or(Rule first, Rule second) {
+        return (p, m, i) -> first.test(p, m, i) || second.test(p, m, i);
+    }
+
+    private static Rule methodRule(String[] methods) {
+        if (methods.length == 1) {
+            final String expected = methods[0];
+            return (p, m, i) -> expected.equals(m);
+        }
+        return (p, m, i) -> anyEquals(methods, m);
+    }
+
+    private static Rule identityTypeRule(String[] identityTypes) {
+        if (identityTypes.length == 1) {
+            final String expected = identityTypes[0];
+            return (p, m, i) -> expected.equals(i);
+        }
+        return (p, m, i) -> anyEquals(identityTypes, i);
+    }
+
+    private static boolean anyEquals(String[] expected, String actual) {
+        for (String value : expected) {
+            if (value.equals(actual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parsed form of the expression
+     */
+    private abstract static class Node {
+        abstract Rule compile();
+
+        /**
+         * @return Rough relative cost of evaluating the node, cheap nodes are evaluated first
+         */
+        int cost() {
+            return 1;
+        }
+    }
+
+    private static final class Condition extends Node {
+        private final String name;
+        private final Permission.Key key;
+        private final String[] values;
+
+        Condition(String name, Permission.Key key, String[] values) {
+            this.name = name;
+            this.key = key;
+            this.values = values;
+        }
+
+        @Override
+        Rule compile() {
+            if (METHOD.equals(name)) {
+                return methodRule(values);
+            }
+            if (IDENTITY_TYPE.equals(name)) {
+                return identityTypeRule(values);
+            }
+            final PermissionSet permissionSet = PermissionSet.of(key, values);
+            if (values.length == 1) {
+                final String value = values[0];
+                return (p, m, i) -> p.hasPermission(key, value);
+            }
+            return (p, m, i) -> p.hasAnyOf(permissionSet);
+        }
+
+        @Override
+        int cost() {
+            return key == null ? 0 : 1;
+        }
+    }
+
+    private static final class Not extends Node {
+        private final Node operand;
+
+        Not(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Rule compile() {
+            final Rule rule = operand.compile();
+            return (p, m, i) -> !rule.test(p, m, i);
+        }
+
+        @Override
+        int cost() {
+            return operand.cost();
+        }
+    }
+
+    private static final class Junction extends Node {
+        private final boolean conjunction;
+        private final List<Node> operands;
+
+        Junction(boolean conjunction, List<Node> operands) {
+            this.conjunction = conjunction;
+            this.operands = operands;
+        }
+
+        @Override
+        Rule compile() {
+            final List<Node> flattened = new ArrayList<>();
+            // single value conditions on the same key become one set check
+            final Map<Permission.Key, List<String>> singleValues = new LinkedHashMap<>();
+            for (Node operand : flatten()) {
+                if (operand instanceof Condition && ((Condition) operand).key != null
+                        && (((Condition) operand).values.length == 1 || !conjunction)) {
+                    final Condition condition = (Condition) operand;
+                    singleValues.computeIfAbsent(condition.key, k -> new ArrayList<>())
+                            .addAll(Arrays.asList(condition.values));
+                } else {
+                    flattened.add(operand);
+                }
+            }
+            // request method and identity type first, then permission checks
+            final List<Rule> rules = new ArrayList<>();
+            for (Node node : flattened) {
+                if (node.cost() == 0) {
+                    rules.add(node.compile());
+                }
+            }
+            for (Map.Entry<Permission.Key, List<String>> entry : singleValues.entrySet()) {
+                rules.add(setRule(entry.getKey(), entry.getValue()));
+            }
+            for (Node node : flattened) {
+                if (node.cost() != 0) {
+                    rules.add(node.compile());
+                }
+            }
+
+            Rule rule = rules.get(rules.size() - 1);
+            for (int index = rules.size() - 2; index >= 0; index--) {
+                rule = conjunction ? and(rules.get(index), rule) : or(rules.get(index), rule);
+            }
+            return rule;
+        }
+
+        private Rule setRule(Permission.Key key, List<String> values) {
+            if (values.size() == 1) {
+                final String value = values.get(0);
+                return (p, m, i) -> p.hasPermission(key, value);
+            }
+            final PermissionSet permissionSet = PermissionSet.of(key, values);
+            return conjunction
+                    ? (p, m, i) -> p.hasAllOf(permissionSet)
+                    : (p, m, i) -> p.hasAnyOf(permissionSet);
+        }
+
+        private List<Node> flatten() {
+            final List<Node> flattened = new ArrayList<>();
+            for (Node operand : operands) {
+                if (operand instanceof Junction && ((Junction) operand).conjunction == conjunction) {
+                    flattened.addAll(((Junction) operand).flatten());
+                } else {
+                    flattened.add(operand);
+                }
+            }
+            return flattened;
+        }
+    }
+
+    /**
+     * Recursive descent parser for the grammar in the class documentation
+     */
+    private static final class Parser {
+        private final String expression;
+        private int pos;
+
+        Parser(String expression) {
+            this.expression = expression;
+        }
+
+        Node parse() {
+            final Node node = parseOr();
+            skipSpaces();
+            if (pos != expression.length()) {
+                throw error("unexpected '" + expression.charAt(pos) + "'");
+            }
+            return node;
+        }
+
+        private Node parseOr() {
+            final List<Node> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (acceptOperator("OR")) {
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Junction(false, operands);
+        }
+
+        private Node parseAnd() {
+            final List<Node> operands = new ArrayList<>();
+            operands.add(parseFactor());
+            while (acceptOperator("AND")) {
+                operands.add(parseFactor());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Junction(true, operands);
+        }
+
+        private Node parseFactor() {
+            if (acceptOperator("NOT")) {
+                return new Not(parseFactor());
+            }
+            if (accept('(')) {
+                final Node node = parseOr();
+                expect(')');
+                return node;
+            }
+            return parseCondition();
+        }
+
+        private Node parseCondition() {
+            final String name = word("a permission key, '" + METHOD + "' or '" + IDENTITY_TYPE + "'");
+            Permission.Key key = null;
+            if (!METHOD.equals(name) && !IDENTITY_TYPE.equals(name)) {
+                key = Permission.Key.fromString(name);
+                if (key == null) {
+                    throw error("unknown permission key '" + name + "'");
+                }
+            }
+            expect('=');
+            final List<String> values = new ArrayList<>();
+            do {
+                final String value = word("a value");
+                values.add(METHOD.equals(name) ? value.toUpperCase(Locale.ROOT) : value);
+            } while (accept(','));
+            return new Condition(name, key, values.toArray(new String[0]));
+        }
+
+        private boolean acceptOperator(String operator) {
+            skipSpaces();
+            final int end = TokenPermissionsParser.scanWord(expression, pos, expression.length());
+            if (end - pos == operator.length()
+                    && expression.regionMatches(true, pos, operator, 0, operator.length())) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean accept(char c) {
+            skipSpaces();
+            if (pos < expression.length() && expression.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        private String word(String description) {
+            skipSpaces();
+            final int end = TokenPermissionsParser.scanWord(expression, pos, expression.length());
+            if (end == pos) {
+                throw error("expected " + description);
+            }
+            final String word = expression.substring(pos, end);
+            if ("AND".equalsIgnoreCase(word) || "OR".equalsIgnoreCase(word) || "NOT".equalsIgnoreCase(word)) {
+                throw error("expected " + description + " but found operator '" + word + "'");
+            }
+            pos = end;
+            return word;
+        }
+
+        private void skipSpaces() {
+            while (pos < expression.length() && Character.isWhitespace(expression.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(
+                    "Invalid permission policy at position " + pos + ", " + message + ": " + expression);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package uk.gov.companieshouse.api.util.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable set of values required for a single permission key, built once when an
+ * interceptor is configured and checked in one call with
+ * {@link TokenPermissions#hasAnyOf(PermissionSet)} or
+ * {@link TokenPermissions#hasAllOf(PermissionSet)}.
+ * <p>
+ * The {@link Permission.Value} constants in the set are precompiled into a bit mask so
+ * that implementations indexed by key can check them with a single bit test.
+ */
+public final class PermissionSet {
+
+    private final Permission.Key key;
+    private final Set<String> values;
+    private final String[] valueArray;
+    private final int mask;
+    private final String[] otherValues;
+
+    private PermissionSet(Permission.Key key, Collection<String> values) {
+        this.key = Objects.requireNonNull(key, "<key> must not be null");
+        Objects.requireNonNull(values, "<values> must not be null");
+        for (String value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("<values> must not contain a null");
+            }
+        }
+        this.values = Collections.unmodifiableSet(new LinkedHashSet<>(values));
+        this.valueArray = this.values.toArray(new String[0]);
+
+        int valueMask = 0;
+        final List<String> others = new ArrayList<>();
+        for (String value : valueArray) {
+            final int bit = Permission.Value.toMask(value);
+            if (bit == 0) {
+                others.add(value);
+            } else {
+                valueMask |= bit;
+            }
+        }
+        this.mask = valueMask;
+        this.otherValues = others.toArray(new String[0]);
+    }
+
+    /**
+     * @param key    The permission key
+     * @param values The values for the key
+     * @return An immutable set of the values for the key
+     */
+    public static PermissionSet of(Permission.Key key, String... values) {
+        Objects.requireNonNull(values, "<values> must not be null");
+        return new PermissionSet(key, Arrays.asList(values));
+    }
+
+    /**
+     * @param key    The permission key
+     * @param values The values for the key
+     * @return An immutable set of the values for the key
+     */
+    public static PermissionSet of(Permission.Key key, Collection<String> values) {
+        return new PermissionSet(key, values);
+    }
+
+    public Permission.Key getKey() {
+        return key;
+    }
+
+    /**
+     * @return The values in the set, in the order given
+     */
+    public Set<String> getValues() {
+        return values;
+    }
+
+    public boolean isEmpty() {
+        return valueArray.length == 0;
+    }
+
+    /**
+     * @return The bit flags of the {@link Permission.Value} constants in the set
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    String[] valueArray() {
+        return valueArray;
+    }
+
+    /**
+     * @return The values in the set that are not {@link Permission.Value} constants
+     */
+    String[] otherValues() {
+        return otherValues;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PermissionSet)) {
+            return false;
+        }
+        final PermissionSet that = (PermissionSet) o;
+        return key == that.key && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, values);
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + values;
+    }
+}
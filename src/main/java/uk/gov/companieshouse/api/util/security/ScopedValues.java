@@ -0,0 +1,154 @@
+package uk.gov.companieshouse.api.util.security;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable set of the non CRUD values granted for a permission key, such as company or
+ * ACSP numbers. The storage adapts to the number of values so that membership checks
+ * stay flat as tokens grow:
+ * <ul>
+ *     <li>up to {@value #INLINE_MAX} values are kept in a small array and compared in turn</li>
+ *     <li>up to {@value #SORTED_MAX} values are kept sorted and binary searched</li>
+ *     <li>larger lists are kept in a hash set</li>
+ * </ul>
+ */
+abstract class ScopedValues {
+
+    static final int INLINE_MAX = 4;
+    static final int SORTED_MAX = 32;
+
+    /**
+     * @param values The values, in header order
+     * @return The storage best suited to the number of values
+     */
+    static ScopedValues of(List<String> values) {
+        final String[] array = values.toArray(new String[0]);
+        if (array.length <= INLINE_MAX) {
+            return new Inline(array);
+        }
+        if (array.length <= SORTED_MAX) {
+            return new Sorted(array);
+        }
+        return new Hashed(array);
+    }
+
+    /**
+     * @param value The value to look for, can be null
+     * @return True if the value is present
+     */
+    abstract boolean contains(String value);
+
+    /**
+     * @param scopedValues The values granted, null if there are none
+     * @param values       The values to look for
+     * @return True if any of the values are granted
+     */
+    static boolean containsAny(ScopedValues scopedValues, String[] values) {
+        if (scopedValues == null) {
+            return false;
+        }
+        for (String value : values) {
+            if (scopedValues.contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param scopedValues The values granted, null if there are none
+     * @param values       The values to look for
+     * @return True if all of the values are granted
+     */
+    static boolean containsAll(ScopedValues scopedValues, String[] values) {
+        if (values.length == 0) {
+            return true;
+        }
+        if (scopedValues == null) {
+            return false;
+        }
+        for (String value : values) {
+            if (!scopedValues.contains(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The values held, in header order
+     */
+    abstract List<String> toList();
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    private static final class Inline extends ScopedValues {
+        private final String[] values;
+
+        Inline(String[] values) {
+            this.values = values;
+        }
+
+        @Override
+        boolean contains(String value) {
+            for (String scopedValue : values) {
+                if (scopedValue.equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        List<String> toList() {
+            return List.of(values);
+        }
+    }
+
+    private static final class Sorted extends ScopedValues {
+        private final String[] values;
+        private final String[] sortedValues;
+
+        Sorted(String[] values) {
+            this.values = values;
+            this.sortedValues = values.clone();
+            Arrays.sort(sortedValues);
+        }
+
+        @Override
+        boolean contains(String value) {
+            return value != null && Arrays.binarySearch(sortedValues, value) >= 0;
+        }
+
+        @Override
+        List<String> toList() {
+            return List.of(values);
+        }
+    }
+
+    private static final class Hashed extends ScopedValues {
+        private final String[] values;
+        private final Set<String> valueSet;
+
+        Hashed(String[] values) {
+            this.values = values;
+            this.valueSet = new HashSet<>(Arrays.asList(values));
+        }
+
+        @Override
+        boolean contains(String value) {
+            return value != null && valueSet.contains(value);
+        }
+
+        @Override
+        List<String> toList() {
+            return List.of(values);
+        }
+    }
+}
@@ -5,6 +5,7 @@ public class SecurityConstants {
     public static final String API_KEY_IDENTITY_TYPE = "key";
     public static final String INTERNAL_USER_ROLE = "*";
     public static final String TOKEN_PERMISSION_REQUEST_KEY = "token_permissions";
+    public static final String ERIC_SECURITY_CONTEXT_REQUEST_KEY = "eric_security_context";
 
     private SecurityConstants() {
         // Hidden constructor
@@ -12,4 +12,50 @@ public interface TokenPermissions {
      *         authorised token permission
      */
     boolean hasPermission(Permission.Key key, String value);
+
+    /**
+     * Check if the current key/value permission pair exists, for a key identified by its
+     * {@link PermissionKeyRegistry} id. Implementations that only know the built-in keys
+     * never find a registered key.
+     *
+     * @param keyId The id of the permission key
+     * @param value The permission value
+     * @return True if the key/value permission pair is present in the list of
+     *         authorised token permission
+     */
+    default boolean hasPermission(int keyId, String value) {
+        final Permission.Key key = Permission.Key.byId(keyId);
+        return key != null && hasPermission(key, value);
+    }
+
+    /**
+     * Check if any of the values in the set are present for its key
+     *
+     * @param permissions The required permissions, built once at configuration time
+     * @return True if at least one of the key/value permission pairs is present. False if
+     *         the set is empty
+     */
+    default boolean hasAnyOf(PermissionSet permissions) {
+        for (String value : permissions.valueArray()) {
+            if (hasPermission(permissions.getKey(), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if all of the values in the set are present for its key
+     *
+     * @param permissions The required permissions, built once at configuration time
+     * @return True if every key/value permission pair is present. True if the set is empty
+     */
+    default boolean hasAllOf(PermissionSet permissions) {
+        for (String value : permissions.valueArray()) {
+            if (!hasPermission(permissions.getKey(), value)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
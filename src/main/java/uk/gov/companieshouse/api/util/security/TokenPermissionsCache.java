@@ -0,0 +1,118 @@
+package uk.gov.companieshouse.api.util.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Bounded, concurrent cache of parsed token permissions keyed by the raw ERIC
+ * authorised token permissions header.
+ * <p>
+ * The same headers repeat across requests for the same users and OAuth scopes, so
+ * caching the immutable {@link TokenPermissionsImpl} built from a header skips both
+ * parsing and allocation for repeat headers. Eviction uses Caffeine's W-TinyLFU
+ * policy. Invalid headers are never cached.
+ * <p>
+ * Caching is opt-in: pass a cache to
+ * {@link uk.gov.companieshouse.api.interceptor.TokenPermissionsInterceptor} or to
+ * {@link uk.gov.companieshouse.api.interceptor.SecurityPipeline.Builder#tokenPermissionsCache}.
+ * The token permissions they store in the request are then used by the interceptors that
+ * run after them. There is no process wide cache, so each application or test owns the
+ * instances it creates.
+ */
+public final class TokenPermissionsCache {
+
+    /**
+     * Default maximum number of distinct headers held
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000L;
+
+    private final Cache<String, TokenPermissions> cache;
+    private final TokenPermissionsParser parser;
+    private final TokenPermissions noPermissions;
+
+    public TokenPermissionsCache(long maximumSize) {
+        this(maximumSize, TokenPermissionsParser.getDefault());
+    }
+
+    /**
+     * @param maximumSize The maximum number of distinct headers held
+     * @param parser      The parser to read uncached headers with
+     */
+    public TokenPermissionsCache(long maximumSize, TokenPermissionsParser parser) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("<maximumSize> must be positive");
+        }
+        this.parser = parser;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        try {
+            this.noPermissions = new TokenPermissionsImpl((String) null, parser);
+        } catch (InvalidTokenPermissionException e) {
+            // A missing header is always valid
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get the token permissions for the header in the given request
+     *
+     * @param request The HTTP request
+     * @return The shared, immutable token permissions for the header
+     * @throws InvalidTokenPermissionException If the header is not valid
+     */
+    public TokenPermissions get(HttpServletRequest request) throws InvalidTokenPermissionException {
+        final String authorisedTokenPermissions = AuthorisationUtil.getAuthorisedTokenPermissions(request);
+        final TokenPermissions tokenPermissions = get(authorisedTokenPermissions);
+        TokenPermissionsImpl.logParsed(request, authorisedTokenPermissions, tokenPermissions);
+        return tokenPermissions;
+    }
+
+    /**
+     * Get the token permissions for the given header, parsing and caching them on a miss
+     *
+     * @param authorisedTokenPermissions The ERIC authorised token permissions header
+     * @return The shared, immutable token permissions for the header
+     * @throws InvalidTokenPermissionException If the header is not valid
+     */
+    public TokenPermissions get(String authorisedTokenPermissions) throws InvalidTokenPermissionException {
+        if (StringUtils.isBlank(authorisedTokenPermissions)) {
+            return noPermissions;
+        }
+        TokenPermissions tokenPermissions = cache.getIfPresent(authorisedTokenPermissions);
+        if (tokenPermissions == null) {
+            // Parsed outside of the cache so the checked exception is not wrapped; a
+            // concurrent miss on the same header only costs a duplicate parse
+            tokenPermissions = new TokenPermissionsImpl(authorisedTokenPermissions, parser);
+            cache.put(authorisedTokenPermissions, tokenPermissions);
+        }
+        return tokenPermissions;
+    }
+
+    /**
+     * @return Hit, miss and eviction statistics for this cache
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return The approximate number of headers held
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Remove all cached headers
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
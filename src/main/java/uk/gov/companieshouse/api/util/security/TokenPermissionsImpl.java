@@ -1,20 +1,12 @@
 package uk.gov.companieshouse.api.util.security;
 
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import jakarta.servlet.http.HttpServletRequest;
 
-import org.apache.commons.lang3.StringUtils;
-
-import uk.gov.companieshouse.logging.Logger;
-import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.api.util.logging.SecurityLogger;
 
 /**
  * Reads and stores the authorised ERIC token permissions from a request and
@@ -22,52 +14,77 @@ import uk.gov.companieshouse.logging.LoggerFactory;
  */
 public class TokenPermissionsImpl implements TokenPermissions {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(String.valueOf(TokenPermissionsImpl.class));
-    private static final Pattern PERMISSION_LIST_PATTERN = Pattern.compile("^\\w+=\\w+(,\\w+)*( \\w+=\\w+(,\\w+)*)*$");
+    private static final SecurityLogger LOGGER = SecurityLogger.getLogger(String.valueOf(TokenPermissionsImpl.class));
 
-    private final Map<String, List<String>> permissions;
+    private final IndexedTokenPermissions permissions;
 
     public TokenPermissionsImpl(HttpServletRequest request) throws InvalidTokenPermissionException{
+        this(request, TokenPermissionsParser.getDefault());
+    }
+
+    /**
+     * @param request The HTTP request
+     * @param parser  The parser to read the token permissions header with, e.g. one
+     *                configured with a different maximum header length
+     * @throws InvalidTokenPermissionException If the header is not valid
+     */
+    public TokenPermissionsImpl(HttpServletRequest request, TokenPermissionsParser parser)
+            throws InvalidTokenPermissionException {
         String authorisedTokenPermissions = AuthorisationUtil.getAuthorisedTokenPermissions(request);
 
-        if (!StringUtils.isBlank(authorisedTokenPermissions)
-                && !PERMISSION_LIST_PATTERN.matcher(authorisedTokenPermissions).matches()) {
-            throw new InvalidTokenPermissionException(authorisedTokenPermissions);
-        }
+        Map<String, List<String>> parsedPermissions = parser.parse(authorisedTokenPermissions);
+        permissions = new IndexedTokenPermissions(parsedPermissions);
+        logParsed(request, authorisedTokenPermissions, parsedPermissions);
+    }
 
-        permissions = readTokenPermissions(authorisedTokenPermissions);
-        Map<String, Object> logData = new HashMap<>();
-        logData.put("ERIC authorised token permission header", authorisedTokenPermissions);
-        logData.put("Token permissions", permissions);
-        LOGGER.debugRequest(request, "Parsed ERIC token permissions", logData);
+    /**
+     * Build the token permissions straight from a header value. The resulting object is
+     * immutable and can be shared between requests carrying the same header.
+     *
+     * @param authorisedTokenPermissions The ERIC authorised token permissions header
+     * @param parser                     The parser to read the header with
+     * @throws InvalidTokenPermissionException If the header is not valid
+     */
+    public TokenPermissionsImpl(String authorisedTokenPermissions, TokenPermissionsParser parser)
+            throws InvalidTokenPermissionException {
+        permissions = new IndexedTokenPermissions(parser.parse(authorisedTokenPermissions));
     }
 
+    /**
+     * Log the token permissions read for a request, whether they were parsed for it or
+     * found in a {@link TokenPermissionsCache}
+     */
+    static void logParsed(HttpServletRequest request, String authorisedTokenPermissions, Object tokenPermissions) {
+        LOGGER.debugRequest(request, "Parsed ERIC token permissions", () -> {
+            Map<String, Object> logData = new HashMap<>();
+            logData.put("ERIC authorised token permission header", authorisedTokenPermissions);
+            logData.put("Token permissions", tokenPermissions);
+            return logData;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return permissions.toString();
+    }
 
     @Override
     public boolean hasPermission(Permission.Key key, String value) {
-        return permissions.getOrDefault(key.toString(), Collections.emptyList()).contains(value);
+        return permissions.hasPermission(key, value);
     }
 
-    /**
-     * The ERIC token permission is of the format: 
-     *       "key1=valueA key2=valueB key3=valueC,valueD,valueE"
-     * i.e. space separated key value pairs which themselves are separated by "=".
-     * values can also be split on a comma so we end up with an array of values per key
-     * 
-     * The example value above becomes:
-     *       "key1" : ["valueA"],
-     *       "key2" : ["valueB"],
-     *       "key3" : ["valueC", "valueD", "valueE"]
-     * 
-     * @param allPermissions
-     * @return
-     */
-    private static Map<String, List<String>> readTokenPermissions(String allPermissions) {
-        if (StringUtils.isBlank(allPermissions)) {
-            return Collections.emptyMap();
-        }
-        return Stream.of(allPermissions.trim().split(" "))
-                .map(pair -> pair.split("="))
-                .collect(Collectors.toMap(s -> s[0], s -> Arrays.asList(s[1].split(","))));
+    @Override
+    public boolean hasPermission(int keyId, String value) {
+        return permissions.hasPermission(keyId, value);
+    }
+
+    @Override
+    public boolean hasAnyOf(PermissionSet permissionSet) {
+        return permissions.hasAnyOf(permissionSet);
+    }
+
+    @Override
+    public boolean hasAllOf(PermissionSet permissionSet) {
+        return permissions.hasAllOf(permissionSet);
     }
 }
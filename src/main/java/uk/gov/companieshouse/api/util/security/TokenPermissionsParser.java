@@ -0,0 +1,316 @@
+package uk.gov.companieshouse.api.util.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Single-pass parser for the ERIC authorised token permissions header.
+ * <p>
+ * The header is of the format:
+ *       "key1=valueA key2=valueB key3=valueC,valueD,valueE"
+ * i.e. space separated key value pairs which themselves are separated by "=".
+ * Values can also be split on a comma so we end up with a list of values per key.
+ * Keys and values are made up of word characters only ([a-zA-Z0-9_]).
+ * <p>
+ * The header is validated and split in the same walk over its characters, so the
+ * cost is linear in the header length and no intermediate arrays are created. That walk is
+ * the only definition of the grammar: parsing, validating and looking a key up in a
+ * validated header all go through it.
+ * Headers longer than the configured maximum length, malformed headers and headers
+ * that repeat a key are rejected with an {@link InvalidTokenPermissionException}.
+ */
+public final class TokenPermissionsParser {
+
+    /**
+     * Default maximum length of a token permissions header
+     */
+    public static final int DEFAULT_MAX_HEADER_LENGTH = 8192;
+
+    private static final TokenPermissionsParser DEFAULT = new TokenPermissionsParser();
+
+    private final int maxHeaderLength;
+
+    public TokenPermissionsParser() {
+        this(DEFAULT_MAX_HEADER_LENGTH);
+    }
+
+    /**
+     * @param maxHeaderLength The maximum number of characters accepted in a header
+     */
+    public TokenPermissionsParser(int maxHeaderLength) {
+        if (maxHeaderLength <= 0) {
+            throw new IllegalArgumentException("<maxHeaderLength> must be positive");
+        }
+        this.maxHeaderLength = maxHeaderLength;
+    }
+
+    /**
+     * @return The shared parser using {@link #DEFAULT_MAX_HEADER_LENGTH}
+     */
+    public static TokenPermissionsParser getDefault() {
+        return DEFAULT;
+    }
+
+    public int getMaxHeaderLength() {
+        return maxHeaderLength;
+    }
+
+    /**
+     * Parse the header into a map of permission key to its list of values.
+     * A blank or missing header has no permissions.
+     *
+     * @param authorisedTokenPermissions The raw header value, can be null
+     * @return An unmodifiable map of key to the values granted for it
+     * @throws InvalidTokenPermissionException If the header is malformed, too long or
+     *                                         repeats a key
+     */
+    public Map<String, List<String>> parse(String authorisedTokenPermissions)
+            throws InvalidTokenPermissionException {
+        if (StringUtils.isBlank(authorisedTokenPermissions)) {
+            return Collections.emptyMap();
+        }
+        checkLength(authorisedTokenPermissions);
+        final Collector collector = new Collector(authorisedTokenPermissions);
+        if (!walk(authorisedTokenPermissions, collector) || collector.duplicate) {
+            throw new InvalidTokenPermissionException(authorisedTokenPermissions);
+        }
+        return Collections.unmodifiableMap(collector.permissions);
+    }
+
+    /**
+     * Check the header is valid without building anything from it. This applies exactly
+     * the same rules as {@link #parse(String)}.
+     *
+     * @param authorisedTokenPermissions The raw header value, can be null
+     * @throws InvalidTokenPermissionException If the header is malformed, too long or
+     *                                         repeats a key
+     */
+    public void validate(String authorisedTokenPermissions) throws InvalidTokenPermissionException {
+        if (StringUtils.isBlank(authorisedTokenPermissions)) {
+            return;
+        }
+        checkLength(authorisedTokenPermissions);
+        final KeySet keys = new KeySet(authorisedTokenPermissions);
+        if (!walk(authorisedTokenPermissions, keys) || keys.duplicate) {
+            throw new InvalidTokenPermissionException(authorisedTokenPermissions);
+        }
+    }
+
+    private void checkLength(String header) throws InvalidTokenPermissionException {
+        if (header.length() > maxHeaderLength) {
+            throw new InvalidTokenPermissionException(header);
+        }
+    }
+
+    /**
+     * Find where the values of a key start in a header that has already been validated
+     *
+     * @param header The validated header
+     * @param key    The key to look for, e.g. "user_profile"
+     * @return The index of the first value of the key or -1 if the key is not present
+     */
+    static int indexOfValues(String header, String key) {
+        final int[] index = {-1};
+        walk(header, (start, end) -> {
+            if (isKey(header, start, end, key)) {
+                index[0] = end + 1;
+                return false;
+            }
+            return true;
+        });
+        return index[0];
+    }
+
+    /**
+     * Visit the span of each value of a key in a header that has already been validated
+     *
+     * @param header The validated header
+     * @param key    The key to look for, e.g. "user_profile"
+     * @param values Given the start and end of each value of the key
+     */
+    static void forEachValue(String header, String key, ValueVisitor values) {
+        walk(header, new Visitor() {
+            private boolean found;
+
+            @Override
+            public boolean key(int start, int end) {
+                if (found) {
+                    return false;
+                }
+                found = isKey(header, start, end, key);
+                return true;
+            }
+
+            @Override
+            public boolean value(int start, int end) {
+                if (found) {
+                    values.value(start, end);
+                }
+                return true;
+            }
+        });
+    }
+
+    private static boolean isKey(String header, int start, int end, String key) {
+        return end - start == key.length() && header.regionMatches(start, key, 0, key.length());
+    }
+
+    /**
+     * Walk the keys and values of a non blank header. This is the single definition of the
+     * header grammar, shared by {@link #parse(String)}, {@link #validate(String)} and the
+     * lookups in a validated header
+     *
+     * @param header  The header
+     * @param visitor Given the span of each key, then of each of its values, until it stops
+     *                the walk
+     * @return False if the header is malformed before the end or the point the visitor
+     *         stopped the walk
+     */
+    private static boolean walk(String header, Visitor visitor) {
+        final int length = header.length();
+        int pos = 0;
+        while (true) {
+            final int keyEnd = scanWord(header, pos, length);
+            if (keyEnd == pos || keyEnd == length || header.charAt(keyEnd) != '=') {
+                return false;
+            }
+            if (!visitor.key(pos, keyEnd)) {
+                return true;
+            }
+            pos = keyEnd + 1;
+
+            while (true) {
+                final int valueEnd = scanWord(header, pos, length);
+                if (valueEnd == pos) {
+                    return false;
+                }
+                if (!visitor.value(pos, valueEnd)) {
+                    return true;
+                }
+                pos = valueEnd;
+                if (pos == length || header.charAt(pos) != ',') {
+                    break;
+                }
+                pos++;
+            }
+
+            if (pos == length) {
+                return true;
+            }
+            if (header.charAt(pos) != ' ') {
+                return false;
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * Receives the spans of the keys and values of a header, each given as the index of its
+     * first character and the index after its last
+     */
+    @FunctionalInterface
+    private interface Visitor {
+
+        /**
+         * @return False to stop the walk
+         */
+        boolean key(int start, int end);
+
+        /**
+         * @return False to stop the walk
+         */
+        default boolean value(int start, int end) {
+            return true;
+        }
+    }
+
+    /**
+     * Receives the span of each value of a key
+     */
+    @FunctionalInterface
+    interface ValueVisitor {
+        void value(int start, int end);
+    }
+
+    /**
+     * Builds the map of key to values, stopping at a repeated key
+     */
+    private static final class Collector implements Visitor {
+        private final String header;
+        private final Map<String, List<String>> permissions = new HashMap<>();
+        private List<String> values;
+        private boolean duplicate;
+
+        Collector(String header) {
+            this.header = header;
+        }
+
+        @Override
+        public boolean key(int start, int end) {
+            values = new ArrayList<>(2);
+            duplicate = permissions.putIfAbsent(header.substring(start, end), Collections.unmodifiableList(values)) != null;
+            return !duplicate;
+        }
+
+        @Override
+        public boolean value(int start, int end) {
+            values.add(header.substring(start, end));
+            return true;
+        }
+    }
+
+    /**
+     * The keys seen so far, stopping at a repeated key. Registered keys are tracked by their
+     * dense id, so only keys unknown to the {@link PermissionKeyRegistry} are extracted
+     */
+    private static final class KeySet implements Visitor {
+        private final String header;
+        private final boolean[] seen = new boolean[PermissionKeyRegistry.size()];
+        private Set<String> others;
+        private boolean duplicate;
+
+        KeySet(String header) {
+            this.header = header;
+        }
+
+        @Override
+        public boolean key(int start, int end) {
+            final int id = PermissionKeyRegistry.getId(header, start, end);
+            if (id != PermissionKeyRegistry.UNKNOWN && id < seen.length) {
+                duplicate = seen[id];
+                seen[id] = true;
+            } else {
+                if (others == null) {
+                    others = new HashSet<>();
+                }
+                duplicate = !others.add(header.substring(start, end));
+            }
+            return !duplicate;
+        }
+    }
+
+    /**
+     * @return The index of the first non word character at or after {@code from}
+     */
+    static int scanWord(String header, int from, int length) {
+        int pos = from;
+        while (pos < length && isWordChar(header.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '_';
+    }
+}
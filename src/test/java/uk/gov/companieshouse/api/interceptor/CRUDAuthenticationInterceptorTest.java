@@ -328,6 +328,18 @@ class CRUDAuthenticationInterceptorTest {
         verifyNoMoreInteractions(request);
     }
 
+    @Test
+    @DisplayName("Test that the preHandle method does nothing when a standard HTTP method is ignored")
+    void preHandleIgnoreStandardMethod() throws Exception {
+        final CRUDAuthenticationInterceptor ignoringGet = new CRUDAuthenticationInterceptor(permissionKey, "GET");
+        when(request.getMethod()).thenReturn("GET");
+
+        assertTrue(ignoringGet.preHandle(request, response, HANDLER));
+
+        verifyNoMoreInteractions(request);
+        verifyNoInteractions(tokenPermissions);
+    }
+
     @Test
     @DisplayName("Test that the postHandle method removes the TokenPermissions object from the request")
     void postHandle() throws Exception {
@@ -357,6 +369,7 @@ class CRUDAuthenticationInterceptorTest {
 
         assertTrue(customInterceptor.preHandle(request, response, HANDLER));
 
+        verify(request).getAttribute(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY);
         verifyNoMoreInteractions(request);
     }
 
@@ -1,7 +1,9 @@
 package uk.gov.companieshouse.api.interceptor;
 
+import com.nimbusds.jose.jwk.JWKSet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.Test;
@@ -58,4 +60,46 @@ class CisAppAuthenticationInterceptorTest {
         assertFalse(result);
         verify(httpServletResponseMock, times(1)).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
     }
+
+    @Test
+    void afterPropertiesSet_prewarmsValidator() throws Exception {
+        cisAppAuthenticationInterceptor.afterPropertiesSet();
+
+        verify(cisAppTokenValidatorMock).prewarm();
+    }
+
+    @Test
+    void afterPropertiesSet_prewarmFails_doesNotThrow() throws Exception {
+        doThrow(new IOException("Failed to load JWKSet")).when(cisAppTokenValidatorMock).prewarm();
+
+        assertDoesNotThrow(() -> cisAppAuthenticationInterceptor.afterPropertiesSet());
+    }
+
+    @Test
+    void prewarm_interceptorCreatedWithNew_prewarmsValidator() throws Exception {
+        CisAppAuthenticationInterceptor interceptor = new CisAppAuthenticationInterceptor(cisAppTokenValidatorMock);
+
+        interceptor.prewarm();
+
+        verify(cisAppTokenValidatorMock).prewarm();
+    }
+
+    @Test
+    void prewarm_interceptorCreatedWithRegistry_loadsKeysIntoRegistry() {
+        JwksRegistry registry = JwksRegistry.builder().sourceFactory(tenant -> JWKSet::new).build();
+        CisAppAuthenticationInterceptor interceptor =
+                new CisAppAuthenticationInterceptor("tenant", "logicApp", "cisApp", registry);
+
+        interceptor.prewarm();
+
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    @SuppressWarnings("removal")
+    void applicationTokenValidator_returnsGivenValidator() {
+        CisAppAuthenticationInterceptor interceptor = new CisAppAuthenticationInterceptor(cisAppTokenValidatorMock);
+
+        assertSame(cisAppTokenValidatorMock, interceptor.applicationTokenValidator());
+    }
 }
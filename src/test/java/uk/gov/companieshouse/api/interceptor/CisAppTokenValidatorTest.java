@@ -1,9 +1,13 @@
 package uk.gov.companieshouse.api.interceptor;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,15 +16,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mockito;
-import org.mockito.exceptions.misusing.WrongTypeOfReturnValue;
 
 import com.nimbusds.jose.jwk.RSAKey;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.gov.companieshouse.api.interceptor.CisAppTokenValidator.ValidationResult;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -239,25 +249,24 @@ class CisAppTokenValidatorTest {
         CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
         JWKSet mockJwkSet = mock(JWKSet.class);
         JWK mockJwk = mock(JWK.class); // Not an RSAKey
-        validatorSpy.jwkSetCache.set(mockJwkSet);
+        doReturn(mockJwkSet).when(validatorSpy).loadJwkSet();
         when(mockJwkSet.getKeyByKeyId(anyString())).thenReturn(mockJwk);
-        assertThrows(IOException.class, () -> validatorSpy.getPublicKeyFromAzureADWithCache("keyId"));
+        assertThrows(IllegalArgumentException.class, () -> validatorSpy.getPublicKeyFromAzureADWithCache("keyId"));
     }
 
     @Test
     void getPublicKeyFromAzureADWithCache_keyNotFound_refreshesCacheAndThrowsIfStillMissing() {
         CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
         JWKSet mockJwkSet = mock(JWKSet.class);
-        validatorSpy.jwkSetCache.set(mockJwkSet);
+        doReturn(mockJwkSet).when(validatorSpy).loadJwkSet();
         when(mockJwkSet.getKeyByKeyId(anyString())).thenReturn(null); // Simulate key not found
-        doReturn(mockJwkSet).when(validatorSpy).jwkSetCache.get();
-        assertThrows(WrongTypeOfReturnValue.class, () -> validatorSpy.getPublicKeyFromAzureADWithCache("keyId"));
+        assertThrows(IllegalArgumentException.class, () -> validatorSpy.getPublicKeyFromAzureADWithCache("keyId"));
+        verify(validatorSpy, times(1)).loadJwkSet();
     }
 
     @Test
     void getPublicKeyFromAzureADWithCache_jwkSetLoadThrowsException_throwsException() throws Exception {
         CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
-        validatorSpy.jwkSetCache.set(null);
         doThrow(new RuntimeException("Failed to load JWKSet"))
                 .when(validatorSpy)
                 .getPublicKeyFromAzureADWithCache(anyString());
@@ -269,10 +278,10 @@ class CisAppTokenValidatorTest {
         CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
         JWKSet mockJwkSet = mock(JWKSet.class);
         RSAKey mockRsaKey = mock(RSAKey.class);
-        validatorSpy.jwkSetCache.set(mockJwkSet);
+        doReturn(mockJwkSet).when(validatorSpy).loadJwkSet();
         when(mockJwkSet.getKeyByKeyId(anyString())).thenReturn((JWK) mockRsaKey);
         doThrow(new RuntimeException("RSA conversion error")).when(mockRsaKey).toRSAPublicKey();
-        assertThrows(IOException.class, () -> validatorSpy.getPublicKeyFromAzureADWithCache("keyId"));
+        assertThrows(RuntimeException.class, () -> validatorSpy.getPublicKeyFromAzureADWithCache("keyId"));
     }
 
     @Test
@@ -318,6 +327,7 @@ class CisAppTokenValidatorTest {
         JWSHeader mockHeader = mock(JWSHeader.class);
         when(mockJwt.getHeader()).thenReturn(mockHeader);
         when(mockHeader.getKeyID()).thenReturn("keyId");
+        when(mockHeader.getAlgorithm()).thenReturn(JWSAlgorithm.RS256);
         RSAPublicKey mockKey = mock(RSAPublicKey.class);
         doReturn(mockKey).when(validatorSpy).getPublicKeyFromAzureADWithCache("keyId");
         doReturn(false).when(mockJwt).verify(any(JWSVerifier.class));
@@ -326,7 +336,7 @@ class CisAppTokenValidatorTest {
 
     @Test
     void validateToken_validSignatureAndClaims_returnsTrue() throws Exception {
-        CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)));
         doReturn(false).when(validatorSpy).isInvalidSignature(any(SignedJWT.class));
         doReturn(true).when(validatorSpy).verifyTokenClaimSet(any(JWTClaimsSet.class));
         String dummyJwt = SignedJWT.parse("eyJhbGciOiJSUzI1NiIsImtpZCI6IjEyMzQifQ.eyJleHAiOjI0MDAwMDAwMDAsIm5iZiI6MTYwMDAwMDAwMH0.signature").serialize();
@@ -335,7 +345,7 @@ class CisAppTokenValidatorTest {
 
     @Test
     void validateToken_invalidSignature_returnsFalse() throws Exception {
-        CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)));
         doReturn(true).when(validatorSpy).isInvalidSignature(any(SignedJWT.class));
         String dummyJwt = SignedJWT.parse("eyJhbGciOiJSUzI1NiIsImtpZCI6IjEyMzQifQ.eyJleHAiOjI0MDAwMDAwMDAsIm5iZiI6MTYwMDAwMDAwMH0.signature").serialize();
         assertFalse(validatorSpy.validateToken(dummyJwt));
@@ -343,13 +353,473 @@ class CisAppTokenValidatorTest {
 
     @Test
     void validateToken_validSignatureInvalidClaims_returnsFalse() throws Exception {
-        CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)));
         doReturn(false).when(validatorSpy).isInvalidSignature(any(SignedJWT.class));
         doReturn(false).when(validatorSpy).verifyTokenClaimSet(any(JWTClaimsSet.class));
         String dummyJwt = SignedJWT.parse("eyJhbGciOiJSUzI1NiIsImtpZCI6IjEyMzQifQ.eyJleHAiOjI0MDAwMDAwMDAsIm5iZiI6MTYwMDAwMDAwMH0.signature").serialize();
         assertFalse(validatorSpy.validateToken(dummyJwt));
     }
     
+    @Test
+    void validateToken_repeatValidToken_skipsSignatureVerification() throws Exception {
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)));
+        doReturn(false).when(validatorSpy).isInvalidSignature(any(SignedJWT.class));
+        doReturn(true).when(validatorSpy).verifyTokenClaimSet(any(JWTClaimsSet.class));
+        String dummyJwt = SignedJWT.parse("eyJhbGciOiJSUzI1NiIsImtpZCI6IjEyMzQifQ.eyJleHAiOjI0MDAwMDAwMDAsIm5iZiI6MTYwMDAwMDAwMH0.signature").serialize();
+        assertTrue(validatorSpy.validateToken(dummyJwt));
+        assertTrue(validatorSpy.validateToken(dummyJwt));
+        verify(validatorSpy, times(1)).isInvalidSignature(any(SignedJWT.class));
+        verify(validatorSpy, times(1)).verifyTokenClaimSet(any(JWTClaimsSet.class));
+    }
+
+    @Test
+    void validateToken_repeatInvalidToken_verifiesSignatureEachTime() throws Exception {
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)));
+        doReturn(true).when(validatorSpy).isInvalidSignature(any(SignedJWT.class));
+        String dummyJwt = SignedJWT.parse("eyJhbGciOiJSUzI1NiIsImtpZCI6IjEyMzQifQ.eyJleHAiOjI0MDAwMDAwMDAsIm5iZiI6MTYwMDAwMDAwMH0.signature").serialize();
+        assertFalse(validatorSpy.validateToken(dummyJwt));
+        assertFalse(validatorSpy.validateToken(dummyJwt));
+        verify(validatorSpy, times(2)).isInvalidSignature(any(SignedJWT.class));
+    }
+
+    @Test
+    void validateToken_repeatTokenPastExpiry_isValidatedAgain() throws Exception {
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)));
+        doReturn(false).when(validatorSpy).isInvalidSignature(any(SignedJWT.class));
+        doReturn(true).when(validatorSpy).verifyTokenClaimSet(any(JWTClaimsSet.class));
+        // exp of 1600000001 has long passed, so the token is never served from the cache
+        String dummyJwt = SignedJWT.parse("eyJhbGciOiJSUzI1NiIsImtpZCI6IjEyMzQifQ.eyJleHAiOjE2MDAwMDAwMDEsIm5iZiI6MTYwMDAwMDAwMH0.signature").serialize();
+        assertTrue(validatorSpy.validateToken(dummyJwt));
+        assertTrue(validatorSpy.validateToken(dummyJwt));
+        verify(validatorSpy, times(2)).isInvalidSignature(any(SignedJWT.class));
+    }
+
+    @Test
+    void isInvalidSignature_keySetLoaded_verifierReusedByKeyId() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
+        doReturn(new JWKSet(rsaKey.toPublicJWK())).when(validatorSpy).loadJwkSet();
+        assertFalse(validatorSpy.isInvalidSignature(signedJwt(rsaKey, "keyId")));
+        assertFalse(validatorSpy.isInvalidSignature(signedJwt(rsaKey, "keyId")));
+        verify(validatorSpy, times(1)).loadJwkSet();
+        long now = System.currentTimeMillis();
+        assertSame(validatorSpy.getVerifier("keyId", now), validatorSpy.getVerifier("keyId", now));
+    }
+
+    @Test
+    void isInvalidSignature_signedWithOtherKey_returnsTrue() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        RSAKey otherKey = new RSAKeyGenerator(2048).generate();
+        CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
+        doReturn(new JWKSet(rsaKey.toPublicJWK())).when(validatorSpy).loadJwkSet();
+        assertTrue(validatorSpy.isInvalidSignature(signedJwt(otherKey, "keyId")));
+    }
+
+    @Test
+    void getVerifier_keySetDueForRefresh_servedWhileRefreshInFlight() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        List<Runnable> refreshes = new ArrayList<>();
+        CisAppTokenValidator validatorSpy = spy(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .refreshExecutor(refreshes::add)
+                .build());
+        doReturn(new JWKSet(rsaKey.toPublicJWK())).when(validatorSpy).loadJwkSet();
+        long now = System.currentTimeMillis();
+        JWSVerifier verifier = validatorSpy.getVerifier("keyId", now);
+
+        long later = now + Duration.ofMinutes(58).toMillis();
+        assertSame(verifier, validatorSpy.getVerifier("keyId", later));
+        assertSame(verifier, validatorSpy.getVerifier("keyId", later));
+        assertEquals(1, refreshes.size());
+        verify(validatorSpy, times(1)).loadJwkSet();
+
+        refreshes.get(0).run();
+        verify(validatorSpy, times(2)).loadJwkSet();
+        assertNotSame(verifier, validatorSpy.getVerifier("keyId", later));
+    }
+
+    @Test
+    void getVerifier_refreshFails_keepsServingStaleKeySet() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator validatorSpy = spy(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .refreshExecutor(Runnable::run)
+                .build());
+        doReturn(new JWKSet(rsaKey.toPublicJWK()))
+                .doThrow(new IOException("Failed to load JWKSet"))
+                .when(validatorSpy).loadJwkSet();
+        long now = System.currentTimeMillis();
+        JWSVerifier verifier = validatorSpy.getVerifier("keyId", now);
+
+        long later = now + Duration.ofHours(2).toMillis();
+        assertSame(verifier, validatorSpy.getVerifier("keyId", later));
+        assertSame(verifier, validatorSpy.getVerifier("keyId", later));
+        verify(validatorSpy, times(2)).loadJwkSet();
+    }
+
+    @Test
+    void getVerifier_keySetOlderThanMaxStaleness_loadsKeySet() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator validatorSpy = spy(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .maxStaleness(Duration.ofHours(3))
+                .refreshExecutor(refresh -> { })
+                .build());
+        doReturn(new JWKSet(rsaKey.toPublicJWK()))
+                .doThrow(new IOException("Failed to load JWKSet"))
+                .when(validatorSpy).loadJwkSet();
+        long now = System.currentTimeMillis();
+        validatorSpy.getVerifier("keyId", now);
+
+        long later = now + Duration.ofHours(4).toMillis();
+        assertThrows(IOException.class, () -> validatorSpy.getVerifier("keyId", later));
+    }
+
+    @Test
+    void builder_maxStalenessUnderAnHour_throwsException() {
+        CisAppTokenValidator.Builder builder = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID);
+        assertThrows(IllegalArgumentException.class, () -> builder.maxStaleness(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void getVerifier_unknownKeyIdInFreshKeySet_returnsNullWithoutReload() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
+        doReturn(new JWKSet(rsaKey.toPublicJWK())).when(validatorSpy).loadJwkSet();
+        validatorSpy.getVerifier("keyId", System.currentTimeMillis());
+        assertNull(validatorSpy.getVerifier("unknownKeyId", System.currentTimeMillis()));
+        assertNull(validatorSpy.getVerifier(null, System.currentTimeMillis()));
+        assertThrows(IllegalArgumentException.class,
+                () -> validatorSpy.isInvalidSignature(signedJwt(rsaKey, "unknownKeyId")));
+        verify(validatorSpy, times(1)).loadJwkSet();
+    }
+
+    @Test
+    void getVerifier_unknownKeyIdAfterReload_isRemembered() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator validatorSpy = spy(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .unknownKeyRefreshInterval(Duration.ofMinutes(1))
+                .build());
+        doReturn(new JWKSet(rsaKey.toPublicJWK())).when(validatorSpy).loadJwkSet();
+        long now = System.currentTimeMillis();
+        validatorSpy.getVerifier("keyId", now);
+
+        assertNull(validatorSpy.getVerifier("unknownKeyId", now + Duration.ofMinutes(2).toMillis()));
+        assertNull(validatorSpy.getVerifier("unknownKeyId", now + Duration.ofMinutes(4).toMillis()));
+        verify(validatorSpy, times(2)).loadJwkSet();
+    }
+
+    @Test
+    void getVerifier_rotatedKeyId_reloadsKeySet() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("rotatedKeyId").generate();
+        CisAppTokenValidator validatorSpy = spy(new CisAppTokenValidator(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID));
+        doReturn(new JWKSet(rsaKey.toPublicJWK()))
+                .doReturn(new JWKSet(List.of(rsaKey.toPublicJWK(), rotatedKey.toPublicJWK())))
+                .when(validatorSpy).loadJwkSet();
+        long now = System.currentTimeMillis();
+        validatorSpy.getVerifier("keyId", now);
+
+        assertNotNull(validatorSpy.getVerifier("rotatedKeyId", now + Duration.ofMinutes(2).toMillis()));
+        verify(validatorSpy, times(2)).loadJwkSet();
+    }
+
+    @Test
+    void builder_unknownKeyRefreshIntervalNotPositive_throwsException() {
+        CisAppTokenValidator.Builder builder = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID);
+        assertThrows(IllegalArgumentException.class, () -> builder.unknownKeyRefreshInterval(Duration.ZERO));
+    }
+
+    @Test
+    void prewarm_loadsKeySetFromSourceBeforeFirstToken() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        AtomicInteger loads = new AtomicInteger();
+        JwksSource source = () -> {
+            loads.incrementAndGet();
+            return new JWKSet(rsaKey.toPublicJWK());
+        };
+        CisAppTokenValidator sourceValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(source)
+                .build();
+
+        sourceValidator.prewarm();
+        assertEquals(1, loads.get());
+        assertTrue(sourceValidator.validateToken(validToken(rsaKey)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @SuppressWarnings("removal")
+    void jwkSetCache_deprecated_mirrorsLoadedKeySet() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        JWKSet jwkSet = new JWKSet(rsaKey.toPublicJWK());
+        CisAppTokenValidator sourceValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(() -> jwkSet)
+                .build();
+        assertNull(sourceValidator.jwkSetCache.get());
+
+        sourceValidator.prewarm();
+        assertSame(jwkSet, sourceValidator.jwkSetCache.get());
+
+        sourceValidator.jwkSetCache.set(null);
+        assertTrue(sourceValidator.validateToken(validToken(rsaKey)));
+        assertSame(jwkSet, sourceValidator.jwkSetCache.get());
+    }
+
+    @Test
+    void prewarm_sourceFails_throwsException() {
+        CisAppTokenValidator sourceValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(JwksSource.classpath("missing-jwks.json"))
+                .build();
+        assertThrows(IOException.class, sourceValidator::prewarm);
+    }
+
+    @Test
+    void validateToken_claimsFirstInvalidClaims_skipsSignatureVerification() throws Exception {
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .claimsFirst(true)));
+        doReturn(false).when(validatorSpy).verifyTokenClaimSet(any(JWTClaimsSet.class));
+        String dummyJwt = SignedJWT.parse("eyJhbGciOiJSUzI1NiIsImtpZCI6IjEyMzQifQ.eyJleHAiOjI0MDAwMDAwMDAsIm5iZiI6MTYwMDAwMDAwMH0.signature").serialize();
+        assertFalse(validatorSpy.validateToken(dummyJwt));
+        verify(validatorSpy, never()).isInvalidSignature(any(SignedJWT.class));
+    }
+
+    @Test
+    void validateToken_claimsFirstValidClaims_verifiesSignature() throws Exception {
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .claimsFirst(true)));
+        doReturn(true).when(validatorSpy).verifyTokenClaimSet(any(JWTClaimsSet.class));
+        doReturn(true).when(validatorSpy).isInvalidSignature(any(SignedJWT.class));
+        String dummyJwt = SignedJWT.parse("eyJhbGciOiJSUzI1NiIsImtpZCI6IjEyMzQifQ.eyJleHAiOjI0MDAwMDAwMDAsIm5iZiI6MTYwMDAwMDAwMH0.signature").serialize();
+        assertFalse(validatorSpy.validateToken(dummyJwt));
+        verify(validatorSpy).isInvalidSignature(any(SignedJWT.class));
+    }
+
+    @Test
+    void validateToken_claimsFirstValidToken_returnsTrue() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator claimsFirstValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(JwksSource.of(new JWKSet(rsaKey.toPublicJWK())))
+                .claimsFirst(true)
+                .build();
+        assertTrue(claimsFirstValidator.validateToken(validToken(rsaKey)));
+    }
+
+    @Test
+    void validate_validToken_returnsValid() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator sourceValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(JwksSource.of(new JWKSet(rsaKey.toPublicJWK())))
+                .build();
+        assertEquals(ValidationResult.VALID, sourceValidator.validate(validToken(rsaKey)));
+        assertEquals(ValidationResult.VALID, sourceValidator.validate(validToken(rsaKey)));
+    }
+
+    @Test
+    void validate_malformedTokens_returnReasons() {
+        assertEquals(ValidationResult.MISSING_TOKEN, validator.validate(null));
+        assertEquals(ValidationResult.MISSING_TOKEN, validator.validate(""));
+        assertEquals(ValidationResult.BAD_FORMAT, validator.validate("not-a-jwt"));
+        assertEquals(ValidationResult.BAD_FORMAT, validator.validate("a.b.c.d"));
+        assertEquals(ValidationResult.BAD_FORMAT, validator.validate("a b.c.d"));
+        assertEquals(ValidationResult.BAD_FORMAT, validator.validate("e30.e30.signature"));
+    }
+
+    @Test
+    void validate_signatureFailures_returnReasons() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        RSAKey otherKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        RSAKey unknownKey = new RSAKeyGenerator(2048).keyID("unknownKeyId").generate();
+        CisAppTokenValidator sourceValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(JwksSource.of(new JWKSet(rsaKey.toPublicJWK())))
+                .build();
+        assertEquals(ValidationResult.BAD_SIGNATURE, sourceValidator.validate(validToken(otherKey)));
+        assertEquals(ValidationResult.UNKNOWN_KEY_ID, sourceValidator.validate(validToken(unknownKey)));
+    }
+
+    @Test
+    void validate_sourceFails_returnsKeysUnavailable() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator sourceValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(() -> {
+                    throw new IOException("Failed to load JWKSet");
+                })
+                .build();
+        assertEquals(ValidationResult.KEYS_UNAVAILABLE, sourceValidator.validate(validToken(rsaKey)));
+    }
+
+    @Test
+    void validate_verifyTokenClaimSetOverridden_returnsInvalidClaims() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(JwksSource.of(new JWKSet(rsaKey.toPublicJWK())))));
+        doReturn(false).when(validatorSpy).verifyTokenClaimSet(any(JWTClaimsSet.class));
+        assertEquals(ValidationResult.INVALID_CLAIMS, validatorSpy.validate(validToken(rsaKey)));
+    }
+
+    @Test
+    void validate_publicKeyLookupOverridden_verifiesWithGivenKey() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)));
+        doReturn(rsaKey.toRSAPublicKey()).when(validatorSpy).getPublicKeyFromAzureADWithCache("keyId");
+        assertEquals(ValidationResult.VALID, validatorSpy.validate(validToken(rsaKey)));
+        verify(validatorSpy, never()).loadJwkSet();
+    }
+
+    @Test
+    void validate_unknownKeyId_reportedWithoutHooks() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        RSAKey unknownKey = new RSAKeyGenerator(2048).keyID("unknownKeyId").generate();
+        CisAppTokenValidator validatorSpy = spy(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(JwksSource.of(new JWKSet(rsaKey.toPublicJWK())))
+                .build());
+        assertFalse(validatorSpy.usesHooks());
+        assertEquals(ValidationResult.UNKNOWN_KEY_ID, validatorSpy.validate(validToken(unknownKey)));
+        assertEquals(ValidationResult.VALID, validatorSpy.validate(validToken(rsaKey)));
+        verify(validatorSpy, never()).isInvalidSignature(any(SignedJWT.class));
+        verify(validatorSpy, never()).getPublicKeyFromAzureADWithCache(anyString());
+        verify(validatorSpy, never()).verifyTokenClaimSet(any(JWTClaimsSet.class));
+    }
+
+    @Test
+    void validate_hooksOverridden_unknownKeyIdReportedThroughHooks() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        RSAKey unknownKey = new RSAKeyGenerator(2048).keyID("unknownKeyId").generate();
+        CisAppTokenValidator validatorSpy = spy(new HookedValidator(CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(JwksSource.of(new JWKSet(rsaKey.toPublicJWK())))));
+        assertTrue(validatorSpy.usesHooks());
+        assertEquals(ValidationResult.UNKNOWN_KEY_ID, validatorSpy.validate(validToken(unknownKey)));
+        verify(validatorSpy).getPublicKeyFromAzureADWithCache("unknownKeyId");
+    }
+
+    @Test
+    void validate_missingExpiration_returnsExpired() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CisAppTokenValidator sourceValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksSource(JwksSource.of(new JWKSet(rsaKey.toPublicJWK())))
+                .build();
+        SignedJWT signedJwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("keyId").build(),
+                validClaims().expirationTime(null).build());
+        signedJwt.sign(new RSASSASigner(rsaKey));
+        assertEquals(ValidationResult.EXPIRED, sourceValidator.validate(signedJwt.serialize()));
+    }
+
+    @Test
+    void checkClaims_invalidClaims_returnReasons() {
+        long now = System.currentTimeMillis();
+        assertEquals(ValidationResult.VALID, validator.checkClaims(validClaims().build(), now));
+        assertEquals(ValidationResult.WRONG_AUDIENCE,
+                validator.checkClaims(validClaims().audience("api://otherApp").build(), now));
+        assertEquals(ValidationResult.WRONG_APP_ID,
+                validator.checkClaims(validClaims().claim("appid", "wrongAppId").build(), now));
+        assertEquals(ValidationResult.WRONG_ISSUER,
+                validator.checkClaims(validClaims().issuer("https://sts.windows.net/otherTenant/").build(), now));
+        assertEquals(ValidationResult.WRONG_TENANT,
+                validator.checkClaims(validClaims().claim("tid", "otherTenant").build(), now));
+        assertEquals(ValidationResult.EXPIRED,
+                validator.checkClaims(validClaims().expirationTime(new Date(now)).build(), now));
+        assertEquals(ValidationResult.EXPIRED,
+                validator.checkClaims(validClaims().expirationTime(null).build(), now));
+        assertEquals(ValidationResult.NOT_YET_VALID,
+                validator.checkClaims(validClaims().notBeforeTime(new Date(now + 10000)).build(), now));
+        assertEquals(ValidationResult.NOT_YET_VALID,
+                validator.checkClaims(validClaims().notBeforeTime(null).build(), now));
+    }
+
+    @Test
+    void validateApplicationToken_headerMissing_returnsMissingToken() {
+        assertEquals(ValidationResult.MISSING_TOKEN, validator.validateApplicationToken(request));
+    }
+
+    @Test
+    void isCompactSerialization_threeBase64UrlSegments() {
+        assertTrue(CisAppTokenValidator.isCompactSerialization("eyJ0.e30.c2ln-_"));
+        assertTrue(CisAppTokenValidator.isCompactSerialization(".."));
+        assertFalse(CisAppTokenValidator.isCompactSerialization("eyJ0.e30"));
+        assertFalse(CisAppTokenValidator.isCompactSerialization("eyJ0.e30.c2ln.c2ln"));
+        assertFalse(CisAppTokenValidator.isCompactSerialization("eyJ0.e30.c2ln="));
+    }
+
+    @Test
+    void jwksRegistry_validatorsOfTenant_shareKeySet() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        AtomicInteger loads = new AtomicInteger();
+        JwksRegistry registry = JwksRegistry.builder()
+                .sourceFactory(tenantId -> () -> {
+                    loads.incrementAndGet();
+                    return new JWKSet(rsaKey.toPublicJWK());
+                })
+                .build();
+        CisAppTokenValidator cisValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksRegistry(registry)
+                .build();
+        CisAppTokenValidator otherValidator = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, "otherApp")
+                .jwksRegistry(registry)
+                .build();
+
+        assertTrue(cisValidator.validateToken(validToken(rsaKey)));
+        assertSame(cisValidator.jwksCache, otherValidator.jwksCache);
+        assertNotNull(otherValidator.getVerifier("keyId", System.currentTimeMillis()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void builder_jwksRegistryWithKeySetSettings_throwsException() {
+        CisAppTokenValidator.Builder builder = CisAppTokenValidator.builder(TENANT_ID, LOGIC_APP_ID, CIS_APP_ID)
+                .jwksRegistry(new JwksRegistry())
+                .maxStaleness(Duration.ofHours(2));
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    /**
+     * Validator overriding the protected hooks, so tokens are checked through them
+     */
+    private static class HookedValidator extends CisAppTokenValidator {
+
+        HookedValidator(CisAppTokenValidator.Builder builder) {
+            super(builder);
+        }
+
+        @Override
+        protected boolean isInvalidSignature(SignedJWT signedJwt) throws IOException, URISyntaxException, ParseException, JOSEException {
+            return super.isInvalidSignature(signedJwt);
+        }
+
+        @Override
+        protected RSAPublicKey getPublicKeyFromAzureADWithCache(String keyId) throws IOException, URISyntaxException, ParseException, JOSEException {
+            return super.getPublicKeyFromAzureADWithCache(keyId);
+        }
+
+        @Override
+        protected boolean verifyTokenClaimSet(JWTClaimsSet claims) {
+            return super.verifyTokenClaimSet(claims);
+        }
+    }
+
+    private static JWTClaimsSet.Builder validClaims() {
+        return new JWTClaimsSet.Builder()
+                .audience("api://" + CIS_APP_ID)
+                .claim("appid", LOGIC_APP_ID)
+                .issuer("https://sts.windows.net/" + TENANT_ID + "/")
+                .claim("tid", TENANT_ID)
+                .expirationTime(new Date(System.currentTimeMillis() + 10000))
+                .notBeforeTime(new Date(System.currentTimeMillis() - 10000));
+    }
+
+    private static String validToken(RSAKey signingKey) throws Exception {
+        SignedJWT signedJwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), validClaims().build());
+        signedJwt.sign(new RSASSASigner(signingKey));
+        return signedJwt.serialize();
+    }
+
+    private static SignedJWT signedJwt(RSAKey signingKey, String keyId) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .audience("api://" + CIS_APP_ID)
+                .expirationTime(new Date(System.currentTimeMillis() + 10000))
+                .build();
+        SignedJWT signedJwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build(), claims);
+        signedJwt.sign(new RSASSASigner(signingKey));
+        return SignedJWT.parse(signedJwt.serialize());
+    }
+
     private static java.util.stream.Stream<String> invalidTokenProvider() {
         return java.util.stream.Stream.of(null, "", "not-a-jwt");
     }
@@ -0,0 +1,135 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.HandlerMapping;
+
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.Permission.Value;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+
+@ExtendWith(MockitoExtension.class)
+@TestInstance(Lifecycle.PER_CLASS)
+class CompanyNumberInterceptorTest {
+    private static final Object HANDLER = null;
+    private static final String COMPANY_NUMBER = "00006400";
+
+    @Spy
+    private CompanyNumberInterceptor interceptor =
+            new CompanyNumberInterceptor(Permission.Key.COMPANY_OFFICERS, Value.UPDATE);
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private TokenPermissions tokenPermissions;
+
+    @Test
+    @DisplayName("Tests the interceptor with a matching company number and the required permission")
+    void preHandleAuthorised() throws InvalidTokenPermissionException {
+        setupPathVariables(Collections.singletonMap("companyNumber", COMPANY_NUMBER));
+        setupTokenPermissions();
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_NUMBER, COMPANY_NUMBER)).thenReturn(true);
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.UPDATE)).thenReturn(true);
+
+        assertTrue(interceptor.preHandle(request, response, HANDLER));
+        verifyNoInteractions(response);
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor with a company number not granted by the token")
+    void preHandleOtherCompany() throws InvalidTokenPermissionException {
+        setupPathVariables(Collections.singletonMap("companyNumber", COMPANY_NUMBER));
+        setupTokenPermissions();
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_NUMBER, COMPANY_NUMBER)).thenReturn(false);
+
+        assertFalse(interceptor.preHandle(request, response, HANDLER));
+        verify(response).setStatus(401);
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor with a matching company number but without the required permission")
+    void preHandleMissingPermission() throws InvalidTokenPermissionException {
+        setupPathVariables(Collections.singletonMap("companyNumber", COMPANY_NUMBER));
+        setupTokenPermissions();
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_NUMBER, COMPANY_NUMBER)).thenReturn(true);
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.UPDATE)).thenReturn(false);
+
+        assertFalse(interceptor.preHandle(request, response, HANDLER));
+        verify(response).setStatus(401);
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor when the path has no company number")
+    void preHandleNoCompanyNumber() throws InvalidTokenPermissionException {
+        setupPathVariables(Collections.singletonMap("transactionId", "123"));
+
+        assertFalse(interceptor.preHandle(request, response, HANDLER));
+        verify(response).setStatus(401);
+        verifyNoInteractions(tokenPermissions);
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor reads the token permissions header when not in the request")
+    void preHandleReadsHeader() throws InvalidTokenPermissionException {
+        CompanyNumberInterceptor companyOnly = new CompanyNumberInterceptor();
+        setupPathVariables(Collections.singletonMap("companyNumber", COMPANY_NUMBER));
+        when(request.getAttribute("token_permissions")).thenReturn(null);
+        when(request.getAttribute("eric_security_context")).thenReturn(null);
+        when(request.getHeader("ERIC-Authorised-Token-Permissions"))
+                .thenReturn("company_number=" + COMPANY_NUMBER + " company_officers=read");
+
+        assertTrue(companyOnly.preHandle(request, response, HANDLER));
+        verify(request).setAttribute(eq("token_permissions"), any(TokenPermissions.class));
+    }
+
+    @Test
+    @DisplayName("Test postHandle removes the token permissions from the request")
+    void postHandle() throws Exception {
+        interceptor.postHandle(request, response, HANDLER, null);
+
+        verify(request).setAttribute(eq("token_permissions"), isNull());
+    }
+
+    @Test
+    void invalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompanyNumberInterceptor(Permission.Key.COMPANY_OFFICERS, null));
+    }
+
+    private void setupPathVariables(Map<String, String> pathVariables) {
+        when(request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE)).thenReturn(pathVariables);
+    }
+
+    private void setupTokenPermissions() {
+        doReturn(Optional.of(tokenPermissions)).when(interceptor).getTokenPermissionsFromRequest(request);
+    }
+}
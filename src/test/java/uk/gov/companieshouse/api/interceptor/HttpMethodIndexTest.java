@@ -0,0 +1,43 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpMethod;
+
+class HttpMethodIndexTest {
+
+    @Test
+    void standardMethodsFollowHttpMethodOrder() {
+        final HttpMethod[] methods = HttpMethod.values();
+
+        assertEquals(HttpMethodIndex.SIZE, methods.length);
+        for (int index = 0; index < methods.length; index++) {
+            assertEquals(index, HttpMethodIndex.of(methods[index].name()));
+            assertEquals(methods[index].name(), HttpMethodIndex.name(index));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "get", "GOT", "PUX", "POSTS", "CUSTOM", "PROPFIND"})
+    void otherMethods(String method) {
+        assertEquals(HttpMethodIndex.OTHER, HttpMethodIndex.of(method));
+    }
+
+    @Test
+    void normalise() {
+        assertEquals("GET", HttpMethodIndex.normalise("get"));
+        assertEquals("PATCH", HttpMethodIndex.normalise("Patch"));
+        assertEquals("DELETE", HttpMethodIndex.normalise("DELETE"));
+        assertEquals("PROPFIND", HttpMethodIndex.normalise("PROPFIND"));
+        assertEquals("propfind", HttpMethodIndex.normalise("propfind"));
+        assertEquals(null, HttpMethodIndex.normalise(null));
+    }
+
+    @Test
+    void nullMethod() {
+        assertEquals(HttpMethodIndex.OTHER, HttpMethodIndex.of(null));
+    }
+}
@@ -1,7 +1,9 @@
 package uk.gov.companieshouse.api.interceptor;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -18,6 +20,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
 import uk.gov.companieshouse.api.util.security.TokenPermissions;
+import uk.gov.companieshouse.api.util.security.TokenPermissionsCache;
 import uk.gov.companieshouse.api.util.security.TokenPermissionsImpl;
 import uk.gov.companieshouse.api.util.security.Permission.Key;
 import uk.gov.companieshouse.api.util.security.Permission.Value;
@@ -45,6 +48,37 @@ class InterceptorHelperTest {
         assertFalse(tp.hasPermission(Key.USER_PROFILE, Value.DELETE));
     }
 
+    @Test
+    @DisplayName("Test readTokenPermissions through a cache")
+    void readTokenPermissionsThroughCache() throws InvalidTokenPermissionException {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+
+        when(request.getHeader("ERIC-Authorised-Token-Permissions"))
+                .thenReturn("company_number=00001234 user_profile=read");
+
+        TokenPermissions first = InterceptorHelper.readTokenPermissions(request, cache);
+        TokenPermissions second = InterceptorHelper.readTokenPermissions(request, cache);
+
+        assertSame(first, second);
+        assertTrue(first.hasPermission(Key.USER_PROFILE, Value.READ));
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Test readTokenPermissions without a cache parses the header")
+    void readTokenPermissionsWithoutCache() throws InvalidTokenPermissionException {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+
+        when(request.getHeader("ERIC-Authorised-Token-Permissions"))
+                .thenReturn("company_number=00001234 user_profile=read");
+
+        TokenPermissions tp = InterceptorHelper.readTokenPermissions(request, null);
+
+        assertTrue(tp instanceof TokenPermissionsImpl);
+        assertTrue(tp.hasPermission(Key.COMPANY_NUMBER, "00001234"));
+    }
+
     @Test
     @DisplayName("Test storeTokenPermissionsInRequest with valid object")
     void storeTokenPermissionsInRequest() {
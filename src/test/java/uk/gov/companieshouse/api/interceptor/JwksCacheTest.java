@@ -0,0 +1,193 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class JwksCacheTest {
+
+    @Test
+    void buildVerifiersOnlyRsaKeysWithKeyId() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        RSAKey noKeyId = new RSAKeyGenerator(2048).generate();
+
+        Map<String, JWSVerifier> verifiers = JwksCache.buildVerifiers(
+                new JWKSet(List.of(rsaKey.toPublicJWK(), noKeyId.toPublicJWK())));
+
+        assertEquals(1, verifiers.size());
+        assertTrue(verifiers.containsKey("keyId"));
+    }
+
+    @Test
+    void getVerifierLoadsKeySetOnce() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        AtomicInteger loads = new AtomicInteger();
+        JwksSource source = () -> {
+            loads.incrementAndGet();
+            return new JWKSet(rsaKey.toPublicJWK());
+        };
+        JwksCache jwksCache = jwksCache(Runnable::run);
+        long now = System.currentTimeMillis();
+
+        JWSVerifier verifier = jwksCache.getVerifier("keyId", now, source);
+
+        assertNotNull(verifier);
+        assertSame(verifier, jwksCache.getVerifier("keyId", now, source));
+        assertNull(jwksCache.getVerifier("unknownKeyId", now, source));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getVerifierRefreshesKeySetInBackground() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        AtomicInteger loads = new AtomicInteger();
+        JwksSource source = () -> {
+            loads.incrementAndGet();
+            return new JWKSet(rsaKey.toPublicJWK());
+        };
+        List<Runnable> refreshes = new ArrayList<>();
+        JwksCache jwksCache = jwksCache(refreshes::add);
+        jwksCache.load(source);
+
+        long later = System.currentTimeMillis() + Duration.ofMinutes(58).toMillis();
+        assertNotNull(jwksCache.getVerifier("keyId", later, source));
+        assertEquals(1, refreshes.size());
+        assertEquals(1, loads.get());
+
+        refreshes.get(0).run();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadReplacesTheSnapshot() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        JwksCache jwksCache = jwksCache(Runnable::run);
+        JwksCache.Snapshot empty = jwksCache.snapshot();
+
+        jwksCache.load(JwksSource.of(new JWKSet(rsaKey.toPublicJWK())));
+
+        JwksCache.Snapshot loaded = jwksCache.snapshot();
+        assertNull(empty.jwkSet());
+        assertNotNull(loaded.jwkSet().getKeyByKeyId("keyId"));
+        assertSame(loaded.verifiers().get("keyId"), jwksCache.getVerifier("keyId", loaded.timestamp(),
+                JwksSource.of(new JWKSet())));
+        assertTrue(loaded.timestamp() > 0);
+    }
+
+    @Test
+    void concurrentLookupsLoadKeySetOnce() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        AtomicInteger loads = new AtomicInteger();
+        JwksSource source = () -> {
+            loads.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new JWKSet(rsaKey.toPublicJWK());
+        };
+        JwksCache jwksCache = jwksCache(Runnable::run);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<JWSVerifier>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add(executor.submit(() -> jwksCache.getVerifier("keyId", System.currentTimeMillis(), source)));
+            }
+            for (Future<JWSVerifier> lookup : lookups) {
+                assertNotNull(lookup.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void unknownKeyIdsReloadAtMostOncePerInterval() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        AtomicInteger loads = new AtomicInteger();
+        JwksSource source = () -> {
+            loads.incrementAndGet();
+            return new JWKSet(rsaKey.toPublicJWK());
+        };
+        JwksCache jwksCache = jwksCache(Runnable::run);
+        jwksCache.load(source);
+        long firstInterval = System.currentTimeMillis() + Duration.ofMinutes(2).toMillis();
+        long secondInterval = firstInterval + Duration.ofMinutes(2).toMillis();
+
+        assertNull(jwksCache.getVerifier("unknownKeyId", firstInterval, source));
+        assertNull(jwksCache.getVerifier("unknownKeyId", firstInterval, source));
+        assertNull(jwksCache.getVerifier("otherUnknownKeyId", firstInterval, source));
+        assertEquals(2, loads.get());
+
+        assertNull(jwksCache.getVerifier("unknownKeyId", secondInterval, source));
+        assertNull(jwksCache.getVerifier("otherUnknownKeyId", secondInterval, source));
+        assertNull(jwksCache.getVerifier("thirdUnknownKeyId", secondInterval, source));
+        assertNull(jwksCache.getVerifier("otherUnknownKeyId", secondInterval, source));
+        assertEquals(3, loads.get());
+        assertNotNull(jwksCache.getVerifier("keyId", secondInterval, source));
+    }
+
+    @Test
+    void unknownKeyIdDoesNotWaitForLoadInFlight() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        JwksSource source = () -> {
+            if (loads.incrementAndGet() > 1) {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new JWKSet(rsaKey.toPublicJWK());
+        };
+        JwksCache jwksCache = jwksCache(Runnable::run);
+        jwksCache.load(source);
+        long later = System.currentTimeMillis() + Duration.ofMinutes(2).toMillis();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<JWSVerifier> reload = executor.submit(() -> jwksCache.getVerifier("unknownKeyId", later, source));
+            loading.await();
+
+            assertNull(jwksCache.getVerifier("otherUnknownKeyId", later, source));
+            release.countDown();
+            assertNull(reload.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    private static JwksCache jwksCache(Executor refreshExecutor) {
+        return new JwksCache("tenant", CisAppTokenValidator.DEFAULT_MAX_STALENESS,
+                CisAppTokenValidator.DEFAULT_UNKNOWN_KEY_REFRESH_INTERVAL, refreshExecutor);
+    }
+}
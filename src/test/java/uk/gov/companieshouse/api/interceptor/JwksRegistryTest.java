@@ -0,0 +1,49 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class JwksRegistryTest {
+
+    @Test
+    void keySetIsSharedPerTenant() {
+        JwksRegistry registry = new JwksRegistry();
+
+        assertSame(registry.keySet("tenant"), registry.keySet("tenant"));
+        assertNotSame(registry.keySet("tenant"), registry.keySet("otherTenant"));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    void prewarmLoadsTheKeySetOfTheTenant() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("keyId").generate();
+        List<String> loaded = new ArrayList<>();
+        JwksRegistry registry = JwksRegistry.builder()
+                .sourceFactory(tenantId -> () -> {
+                    loaded.add(tenantId);
+                    return new JWKSet(rsaKey.toPublicJWK());
+                })
+                .build();
+
+        registry.prewarm("tenant");
+
+        assertEquals(List.of("tenant"), loaded);
+        assertNotNull(registry.keySet("tenant").snapshot().jwkSet().getKeyByKeyId("keyId"));
+    }
+
+    @Test
+    void sharedIsOneRegistry() {
+        assertSame(JwksRegistry.shared(), JwksRegistry.shared());
+    }
+}
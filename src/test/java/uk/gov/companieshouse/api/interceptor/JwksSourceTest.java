@@ -0,0 +1,83 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JwksSourceTest {
+
+    private static final String RESOURCE = "cis-app-jwks.json";
+    private static final String RESOURCE_KEY_ID = "test-key";
+
+    @Test
+    void ofReturnsTheKeySet() throws Exception {
+        JWKSet jwkSet = new JWKSet(rsaKey("keyId"));
+
+        assertSame(jwkSet, JwksSource.of(jwkSet).load());
+    }
+
+    @Test
+    void fileReadsTheKeySet(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("jwks.json");
+        Files.writeString(file, new JWKSet(rsaKey("keyId")).toString());
+
+        assertNotNull(JwksSource.file(file).load().getKeyByKeyId("keyId"));
+    }
+
+    @Test
+    void classpathReadsTheKeySet() throws Exception {
+        JWKSet jwkSet = JwksSource.classpath(RESOURCE).load();
+
+        assertEquals(1, jwkSet.getKeys().size());
+        assertNotNull(((RSAKey) jwkSet.getKeyByKeyId(RESOURCE_KEY_ID)).toRSAPublicKey());
+    }
+
+    @Test
+    void classpathMissingResourceThrowsException() {
+        JwksSource source = JwksSource.classpath("missing-jwks.json");
+
+        assertThrows(IOException.class, source::load);
+    }
+
+    @Test
+    void httpReadsTheKeySet() throws Exception {
+        byte[] body = new JWKSet(rsaKey("keyId")).toString().getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/discovery/v2.0/keys", exchange -> {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        try {
+            URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/discovery/v2.0/keys");
+
+            assertNotNull(JwksSource.http(uri).load().getKeyByKeyId("keyId"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static RSAKey rsaKey(String keyId) throws Exception {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate().toPublicJWK();
+    }
+}
@@ -35,6 +35,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpMethod;
 import uk.gov.companieshouse.api.util.security.EricConstants;
 import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.PermissionSet;
 import uk.gov.companieshouse.api.util.security.SecurityConstants;
 import uk.gov.companieshouse.api.util.security.TokenPermissions;
 import uk.gov.companieshouse.api.util.security.TokenPermissionsImpl;
@@ -152,13 +153,8 @@ class MappablePermissionsInterceptorTest {
             final boolean isValid) {
         setupTokenPermissions();
         when(request.getMethod()).thenReturn(httpMethod);
-
-        for (int i = 0; i < requiredPermissions.length; i++) {
-            final String permission = requiredPermissions[i];
-            // To test short-circuit evaluation, set only last to isValid, all others to FALSE
-            when(tokenPermissions.hasPermission(USER_PROFILE_KEY, permission)).thenReturn(
-                    i == requiredPermissions.length - 1 && isValid);
-        }
+        when(tokenPermissions.hasAnyOf(PermissionSet.of(USER_PROFILE_KEY, requiredPermissions)))
+                .thenReturn(isValid);
 
         assertThat(testInterceptor.preHandle(request, response, HANDLER), is(isValid));
         if (isValid) {
@@ -197,6 +193,19 @@ class MappablePermissionsInterceptorTest {
         verifyNoMoreInteractions(request);
     }
 
+    @Test
+    @DisplayName("preHandle does nothing when a standard HTTP method is ignored")
+    void preHandleIgnoreStandardMethod() {
+        final MappablePermissionsInterceptor ignoringGet =
+                new MappablePermissionsInterceptor(USER_PROFILE_KEY, EXPECTED_MAPPING, "GET");
+        when(request.getMethod()).thenReturn("GET");
+
+        assertThat(ignoringGet.preHandle(request, response, HANDLER), is(true));
+
+        verifyNoMoreInteractions(request);
+        verifyNoInteractions(tokenPermissions);
+    }
+
     @Test
     @DisplayName("postHandle removes the TokenPermissions object from the request")
     void postHandle() {
@@ -228,6 +237,7 @@ class MappablePermissionsInterceptorTest {
 
         assertThat(ignoringApiInterceptor.preHandle(request, response, HANDLER), is(true));
 
+        verify(request).getAttribute(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY);
         verifyNoMoreInteractions(request);
     }
 
@@ -0,0 +1,115 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.Permission.Value;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+import uk.gov.companieshouse.api.util.security.TokenPermissionsImpl;
+
+@ExtendWith(MockitoExtension.class)
+@TestInstance(Lifecycle.PER_CLASS)
+class PermissionPolicyInterceptorTest {
+    private static final Object HANDLER = null;
+
+    @Spy
+    private PermissionPolicyInterceptor interceptor = new PermissionPolicyInterceptor(
+            "company_officers=update OR (method=GET AND company_officers=read)");
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private TokenPermissions tokenPermissions;
+
+    @Captor
+    private ArgumentCaptor<TokenPermissions> tokenPermissionsCaptor;
+
+    @Test
+    @DisplayName("Test preHandle when TokenPermissions is not present in request")
+    void preHandleMissingTokenPermissions() throws Exception {
+        when(request.getHeader("ERIC-Authorised-Token-Permissions")).thenReturn("company_officers=read");
+        when(request.getHeader("ERIC-Identity-Type")).thenReturn("oauth2");
+        when(request.getMethod()).thenReturn("GET");
+
+        assertTrue(interceptor.preHandle(request, response, HANDLER));
+
+        verifyNoInteractions(response);
+        verify(request).setAttribute(eq("token_permissions"), tokenPermissionsCaptor.capture());
+        TokenPermissions storedPermissions = tokenPermissionsCaptor.getValue();
+
+        assertNotNull(storedPermissions);
+        assertTrue(storedPermissions instanceof TokenPermissionsImpl);
+    }
+
+    @Test
+    @DisplayName("Test preHandle when TokenPermissions is not present in request and the header is invalid")
+    void preHandleMissingTokenPermissionsInvalidHeader() {
+        when(request.getHeader("ERIC-Authorised-Token-Permissions")).thenReturn("invalid");
+
+        assertThrows(InvalidTokenPermissionException.class, () -> interceptor.preHandle(request, response, HANDLER));
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor with a request satisfying the policy")
+    void preHandleAuthorised() throws InvalidTokenPermissionException {
+        setupTokenPermissions();
+        when(request.getMethod()).thenReturn("POST");
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.UPDATE)).thenReturn(true);
+
+        assertTrue(interceptor.preHandle(request, response, HANDLER));
+        verifyNoInteractions(response);
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor with a request not satisfying the policy")
+    void preHandleUnauthorised() throws InvalidTokenPermissionException {
+        setupTokenPermissions();
+        when(request.getMethod()).thenReturn("POST");
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.UPDATE)).thenReturn(false);
+
+        assertFalse(interceptor.preHandle(request, response, HANDLER));
+        verify(response).setStatus(401);
+    }
+
+    @Test
+    @DisplayName("Test postHandle removes the token permissions from the request")
+    void postHandle() throws Exception {
+        interceptor.postHandle(request, response, HANDLER, null);
+
+        verify(request).setAttribute(eq("token_permissions"), isNull());
+    }
+
+    private void setupTokenPermissions() {
+        doReturn(Optional.of(tokenPermissions)).when(interceptor).getTokenPermissionsFromRequest(request);
+    }
+}
@@ -126,4 +126,42 @@ class PermissionsMappingTest {
         assertThrows(IllegalArgumentException.class, builder::build);
     }
 
-}
\ No newline at end of file
+    @Test
+    void builderWhenNoDefault() {
+        testMapping = PermissionsMapping.builder().mappedRequireAnyOf("POST", "create").build();
+
+        assertThat(testMapping.apply("GET"), is(empty()));
+        assertThat(testMapping.apply("POST"), containsInAnyOrder("create"));
+    }
+
+    @Test
+    void builderWhenMappedTwice() {
+        testMapping = PermissionsMapping.builder()
+                .defaultRequireNone()
+                .mappedRequireAnyOf("POST", "create")
+                .mappedRequireAnyOf("POST", "update")
+                .build();
+
+        assertThat(testMapping.apply("POST"), containsInAnyOrder("create", "update"));
+    }
+
+    @Test
+    void builderWhenNonStandardKey() {
+        testMapping = PermissionsMapping.builder()
+                .defaultRequireAnyOf("read")
+                .mappedRequireAnyOf("CUSTOM", "create")
+                .build();
+
+        assertThat(testMapping.apply("CUSTOM"), containsInAnyOrder("create"));
+        assertThat(testMapping.apply("OTHER"), containsInAnyOrder("read"));
+        assertThat(testMapping.apply(null), containsInAnyOrder("read"));
+    }
+
+    @Test
+    void applyReturnsImmutableSet() {
+        testMapping = PermissionsMapping.builder().defaultRequireAnyOf("read").build();
+
+        assertThrows(UnsupportedOperationException.class, () -> testMapping.apply("GET").add("create"));
+    }
+
+}
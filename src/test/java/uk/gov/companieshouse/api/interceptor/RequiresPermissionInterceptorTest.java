@@ -0,0 +1,195 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import uk.gov.companieshouse.api.util.security.EricConstants;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.Permission.Value;
+import uk.gov.companieshouse.api.util.security.SecurityConstants;
+
+class RequiresPermissionInterceptorTest {
+
+    @RequiresPermission(key = Permission.Key.COMPANY_STATUS, values = Value.READ)
+    static class Controller {
+
+        @RequiresPermission(key = Permission.Key.COMPANY_OFFICERS, values = Value.READ, methods = "GET")
+        @RequiresPermission(key = Permission.Key.COMPANY_OFFICERS, values = {Value.UPDATE, Value.DELETE},
+                methods = {"POST", "DELETE"})
+        public void officers() {
+        }
+
+        @RequiresPermission(key = Permission.Key.COMPANY_PSCS)
+        @RequiresPermission(key = Permission.Key.COMPANY_NUMBER, values = "00006400")
+        public void pscs() {
+        }
+
+        public void status() {
+        }
+
+        @RequiresPermission(key = Permission.Key.COMPANY_OFFICERS, values = Value.UPDATE, methods = {"put", "PURGE"})
+        public void lowerCase() {
+        }
+
+        @RequiresPermission(key = Permission.Key.COMPANY_OFFICERS, methods = " ")
+        public void blankMethod() {
+        }
+    }
+
+    static class OpenController {
+        public void open() {
+        }
+    }
+
+    private final RequiresPermissionInterceptor interceptor = new RequiresPermissionInterceptor();
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    @DisplayName("Tests the method annotation for the HTTP method is enforced")
+    void preHandleMethodAnnotation() throws Exception {
+        final HandlerMethod officers = handler(new Controller(), "officers");
+
+        assertTrue(interceptor.preHandle(request("GET", "company_officers=read"), response, officers));
+        assertTrue(interceptor.preHandle(request("POST", "company_officers=delete"), response, officers));
+        assertFalse(interceptor.preHandle(request("DELETE", "company_officers=read"), response, officers));
+        assertEquals(401, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Tests methods not named by the method annotations have no requirement")
+    void preHandleMethodNotAnnotated() throws Exception {
+        assertTrue(interceptor.preHandle(request("PUT", null), response, handler(new Controller(), "officers")));
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Tests every annotation applying to the request is required")
+    void preHandleAllAnnotationsRequired() throws Exception {
+        final HandlerMethod pscs = handler(new Controller(), "pscs");
+
+        assertTrue(interceptor.preHandle(request("PATCH", "company_pscs=update company_number=00006400"), response,
+                pscs));
+        assertFalse(interceptor.preHandle(request("PATCH", "company_pscs=update company_number=00000001"), response,
+                pscs));
+        assertFalse(interceptor.preHandle(request("PATCH", "company_pscs=read company_number=00006400"), response,
+                pscs));
+    }
+
+    @Test
+    @DisplayName("Tests the class annotation applies to methods without annotations")
+    void preHandleClassAnnotation() throws Exception {
+        final HandlerMethod status = handler(new Controller(), "status");
+
+        assertTrue(interceptor.preHandle(request("GET", "company_status=read"), response, status));
+        assertFalse(interceptor.preHandle(request("GET", "company_officers=read"), response, status));
+    }
+
+    @Test
+    @DisplayName("Tests handlers without annotations and other handlers are let through")
+    void preHandleNoRequirement() throws Exception {
+        final MockHttpServletRequest request = request("GET", null);
+
+        assertTrue(interceptor.preHandle(request, response, handler(new OpenController(), "open")));
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        assertNull(request.getAttribute(SecurityConstants.TOKEN_PERMISSION_REQUEST_KEY));
+    }
+
+    @Test
+    @DisplayName("Tests API key requests are let through when ignored")
+    void preHandleIgnoreAPIKeyRequests() throws Exception {
+        final MockHttpServletRequest request = request("GET", null);
+        request.addHeader(EricConstants.ERIC_IDENTITY_TYPE, SecurityConstants.API_KEY_IDENTITY_TYPE);
+
+        assertTrue(new RequiresPermissionInterceptor(true).preHandle(request, response,
+                handler(new Controller(), "officers")));
+        assertFalse(interceptor.preHandle(request, response, handler(new Controller(), "officers")));
+    }
+
+    @Test
+    @DisplayName("Tests the requirement of a handler is resolved once")
+    void requirementResolvedOnce() throws Exception {
+        final HandlerMethod officers = handler(new Controller(), "officers");
+        final RequiresPermissionInterceptor.Requirement requirement = interceptor.resolve(officers);
+
+        assertEquals(1, requirement.getPermissionSets("GET").length);
+        assertEquals(0, requirement.getPermissionSets("PUT").length);
+        assertSame(requirement.getPermissionSets("GET"), requirement.getPermissionSets("GET"));
+        assertSame(RequiresPermissionInterceptor.Requirement.NONE,
+                interceptor.resolve(handler(new OpenController(), "open")));
+    }
+
+    @Test
+    @DisplayName("Tests standard methods of an annotation match ignoring case and other methods are compiled once")
+    void requirementNormalisesMethods() throws Exception {
+        final HandlerMethod lowerCase = handler(new Controller(), "lowerCase");
+        final RequiresPermissionInterceptor.Requirement requirement = interceptor.resolve(lowerCase);
+
+        assertEquals(1, requirement.getPermissionSets("PUT").length);
+        assertEquals(1, requirement.getPermissionSets("PURGE").length);
+        assertEquals(0, requirement.getPermissionSets("purge").length);
+        assertSame(requirement.getPermissionSets("PURGE"), requirement.getPermissionSets("PURGE"));
+        assertFalse(interceptor.preHandle(request("PUT", "company_officers=read"), response, lowerCase));
+    }
+
+    @Test
+    @DisplayName("Tests a blank method in an annotation is rejected when the handler is resolved")
+    void requirementRejectsBlankMethod() {
+        assertThrows(IllegalArgumentException.class,
+                () -> interceptor.resolve(handler(new Controller(), "blankMethod")));
+    }
+
+    @Test
+    @DisplayName("Tests the requirement is resolved once for handlers of different bean instances")
+    void preHandleResolvesRequirementOnce() throws Exception {
+        final AtomicInteger resolutions = new AtomicInteger();
+        final RequiresPermissionInterceptor countingInterceptor = new RequiresPermissionInterceptor() {
+            @Override
+            Requirement resolve(HandlerMethod handlerMethod) {
+                resolutions.incrementAndGet();
+                return super.resolve(handlerMethod);
+            }
+        };
+
+        assertTrue(countingInterceptor.preHandle(request("GET", "company_officers=read"), response,
+                handler(new Controller(), "officers")));
+        assertTrue(countingInterceptor.preHandle(request("GET", "company_officers=read"), response,
+                handler(new Controller(), "officers")));
+        assertEquals(1, resolutions.get());
+    }
+
+    @Test
+    @DisplayName("Test postHandle removes the token permissions from the request")
+    void postHandle() throws Exception {
+        final MockHttpServletRequest request = request("GET", "company_officers=read");
+        interceptor.preHandle(request, response, handler(new Controller(), "officers"));
+
+        interceptor.postHandle(request, response, null, null);
+
+        assertNull(request.getAttribute(SecurityConstants.TOKEN_PERMISSION_REQUEST_KEY));
+    }
+
+    private static HandlerMethod handler(Object controller, String method) throws NoSuchMethodException {
+        return new HandlerMethod(controller, controller.getClass().getMethod(method));
+    }
+
+    private static MockHttpServletRequest request(String method, String tokenPermissions) {
+        final MockHttpServletRequest request = new MockHttpServletRequest(method, "/");
+        if (tokenPermissions != null) {
+            request.addHeader(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, tokenPermissions);
+        }
+        return request;
+    }
+}
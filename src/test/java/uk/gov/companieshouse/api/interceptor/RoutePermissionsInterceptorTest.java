@@ -0,0 +1,230 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.Permission.Value;
+import uk.gov.companieshouse.api.util.security.PermissionSet;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+
+@ExtendWith(MockitoExtension.class)
+@TestInstance(Lifecycle.PER_CLASS)
+class RoutePermissionsInterceptorTest {
+    private static final Object HANDLER = null;
+
+    private static final PermissionSet OFFICERS_UPDATE = PermissionSet.of(Permission.Key.COMPANY_OFFICERS, Value.UPDATE);
+    private static final PermissionSet OFFICERS_READ = PermissionSet.of(Permission.Key.COMPANY_OFFICERS, Value.READ);
+    private static final PermissionSet PSCS_UPDATE = PermissionSet.of(Permission.Key.COMPANY_PSCS, Value.UPDATE);
+    private static final PermissionSet STATUS_READ = PermissionSet.of(Permission.Key.COMPANY_STATUS, Value.READ);
+
+    @Spy
+    private RoutePermissionsInterceptor interceptor = RoutePermissionsInterceptor.builder()
+            .route("/company/{companyNumber}/officers", "POST", Permission.Key.COMPANY_OFFICERS, Value.UPDATE)
+            .route("/company/{companyNumber}/officers/{officerId}", "GET", Permission.Key.COMPANY_OFFICERS,
+                    Value.READ)
+            .route("/company/{companyNumber}/pscs/**", Permission.Key.COMPANY_PSCS,
+                    PermissionsMapping.builder().defaultRequireAnyOf(Value.UPDATE).mappedRequireNone("GET").build())
+            .route("/company/{companyNumber}/status", "GET", Permission.Key.COMPANY_STATUS, Value.READ)
+            .route("/company/{companyNumber}/status", "POST", Permission.Key.COMPANY_STATUS)
+            .build();
+
+    private MockHttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private TokenPermissions tokenPermissions;
+
+    @Test
+    @DisplayName("Tests the interceptor with a route whose requirement is met")
+    void preHandleAuthorised() throws InvalidTokenPermissionException {
+        setupRequest("POST", "/company/00006400/officers");
+        setupTokenPermissions();
+        when(tokenPermissions.hasAnyOf(OFFICERS_UPDATE)).thenReturn(true);
+
+        assertTrue(interceptor.preHandle(request, response, HANDLER));
+        verifyNoInteractions(response);
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor with a route whose requirement is not met")
+    void preHandleUnauthorised() throws InvalidTokenPermissionException {
+        setupRequest("GET", "/company/00006400/officers/abc");
+        setupTokenPermissions();
+        when(tokenPermissions.hasAnyOf(OFFICERS_READ)).thenReturn(false);
+
+        assertFalse(interceptor.preHandle(request, response, HANDLER));
+        verify(response).setStatus(401);
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor with a catch all route and its mapping")
+    void preHandleCatchAll() throws InvalidTokenPermissionException {
+        setupRequest("DELETE", "/company/00006400/pscs/individual/123");
+        setupTokenPermissions();
+        when(tokenPermissions.hasAnyOf(PSCS_UPDATE)).thenReturn(true);
+
+        assertTrue(interceptor.preHandle(request, response, HANDLER));
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor lets a request through when the mapping requires nothing")
+    void preHandleMappedRequireNone() throws InvalidTokenPermissionException {
+        setupRequest("GET", "/company/00006400/pscs");
+
+        assertTrue(interceptor.preHandle(request, response, HANDLER));
+        verifyNoInteractions(tokenPermissions);
+    }
+
+    @Test
+    @DisplayName("Tests literal segments take precedence over variables")
+    void preHandleLiteralBeforeVariable() throws InvalidTokenPermissionException {
+        setupRequest("GET", "/api/company/00006400/status/");
+        request.setContextPath("/api");
+        setupTokenPermissions();
+        when(tokenPermissions.hasAnyOf(STATUS_READ)).thenReturn(true);
+
+        assertTrue(interceptor.preHandle(request, response, HANDLER));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/company/00006400/%6Ffficers", "/company/00006400/officers;x=1",
+            "/company/00006400;x=1/officers", "//company//00006400/officers", "/company/00006400/officers/"})
+    @DisplayName("Tests the interceptor matches the decoded path without parameters or empty segments")
+    void preHandleNormalisedPath(String path) throws InvalidTokenPermissionException {
+        setupRequest("POST", path);
+        setupTokenPermissions();
+        when(tokenPermissions.hasAnyOf(OFFICERS_UPDATE)).thenReturn(false);
+
+        assertFalse(interceptor.preHandle(request, response, HANDLER));
+        verify(response).setStatus(401);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/company/00006400", "/company/00006400/officers/abc/extra", "/other", "/"})
+    @DisplayName("Tests the interceptor rejects requests matching no route")
+    void preHandleNoRoute(String path) throws InvalidTokenPermissionException {
+        setupRequest("GET", path);
+
+        assertFalse(interceptor.preHandle(request, response, HANDLER));
+        verify(response).setStatus(401);
+        verifyNoInteractions(tokenPermissions);
+    }
+
+    @Test
+    @DisplayName("Tests the interceptor rejects methods without a requirement")
+    void preHandleNoRequirementForMethod() throws InvalidTokenPermissionException {
+        setupRequest("DELETE", "/company/00006400/officers");
+
+        assertFalse(interceptor.preHandle(request, response, HANDLER));
+        verify(response).setStatus(401);
+        verifyNoInteractions(tokenPermissions);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/other", "/company/00006400/officers/abc/extra"})
+    @DisplayName("Tests the interceptor lets through requests matching no route when allowed")
+    void preHandleAllowUnmatchedRequests(String path) throws InvalidTokenPermissionException {
+        final RoutePermissionsInterceptor allowing = RoutePermissionsInterceptor.builder()
+                .route("/company/{companyNumber}/officers", "POST", Permission.Key.COMPANY_OFFICERS, Value.UPDATE)
+                .allowUnmatchedRequests(true)
+                .build();
+        setupRequest("DELETE", path);
+
+        assertTrue(allowing.preHandle(request, response, HANDLER));
+        verifyNoInteractions(tokenPermissions, response);
+    }
+
+    @Test
+    @DisplayName("Test postHandle removes the token permissions from the request")
+    void postHandle() throws Exception {
+        request = new MockHttpServletRequest();
+        request.setAttribute("token_permissions", tokenPermissions);
+
+        interceptor.postHandle(request, response, HANDLER, null);
+
+        assertNull(request.getAttribute("token_permissions"));
+    }
+
+    @Test
+    @DisplayName("Tests routes added to the builder after build do not change the interceptor")
+    void builderChangesAfterBuild() throws InvalidTokenPermissionException {
+        final RoutePermissionsInterceptor.Builder builder = RoutePermissionsInterceptor.builder()
+                .route("/company/{companyNumber}/status", "GET", Permission.Key.COMPANY_STATUS);
+        final RoutePermissionsInterceptor built = builder.build();
+        builder.route("/company/{companyNumber}/officers", "GET", Permission.Key.COMPANY_OFFICERS)
+                .route("/company/{companyNumber}/status", "POST", Permission.Key.COMPANY_STATUS);
+
+        setupRequest("GET", "/company/00006400/status");
+        assertTrue(built.preHandle(request, response, HANDLER));
+        setupRequest("GET", "/company/00006400/officers");
+        assertFalse(built.preHandle(request, response, HANDLER));
+        setupRequest("POST", "/company/00006400/status");
+        assertFalse(built.preHandle(request, response, HANDLER));
+        setupRequest("POST", "/company/00006400/status");
+        assertTrue(builder.build().preHandle(request, response, HANDLER));
+    }
+
+    @Test
+    @DisplayName("Tests routes configured with a standard method in lower case match it")
+    void lowerCaseMethod() throws InvalidTokenPermissionException {
+        final RoutePermissionsInterceptor lowerCase = RoutePermissionsInterceptor.builder()
+                .route("/company/{companyNumber}/status", "get", Permission.Key.COMPANY_STATUS)
+                .build();
+        setupRequest("GET", "/company/00006400/status");
+
+        assertTrue(lowerCase.preHandle(request, response, HANDLER));
+        verifyNoInteractions(response);
+    }
+
+    @Test
+    void invalidRoutes() {
+        final RoutePermissionsInterceptor.Builder builder = RoutePermissionsInterceptor.builder()
+                .route("/company/{companyNumber}", "GET", Permission.Key.COMPANY_STATUS, Value.READ);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.route("/company/{number}", "GET", Permission.Key.COMPANY_STATUS, Value.READ));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.route("company", "GET", Permission.Key.COMPANY_STATUS, Value.READ));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.route("/company/**/officers", "GET", Permission.Key.COMPANY_STATUS, Value.READ));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.route("/company/{number", "GET", Permission.Key.COMPANY_STATUS, Value.READ));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.route("/company/abc*", "GET", Permission.Key.COMPANY_STATUS, Value.READ));
+    }
+
+    private void setupRequest(String method, String path) {
+        request = new MockHttpServletRequest(method, path);
+    }
+
+    private void setupTokenPermissions() {
+        doReturn(Optional.of(tokenPermissions)).when(interceptor).getTokenPermissionsFromRequest(any());
+    }
+}
@@ -0,0 +1,255 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.gov.companieshouse.api.util.security.EricConstants;
+import uk.gov.companieshouse.api.util.security.EricSecurityContext;
+import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.Permission.Value;
+import uk.gov.companieshouse.api.util.security.PermissionSet;
+import uk.gov.companieshouse.api.util.security.SecurityConstants;
+import uk.gov.companieshouse.api.util.security.TokenPermissions;
+import uk.gov.companieshouse.api.util.security.TokenPermissionsCache;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityPipelineTest {
+    private static final Object HANDLER = null;
+
+    @Spy
+    private SecurityPipeline pipeline = SecurityPipeline.builder()
+            .userAuthentication(List.of("GET", "POST"), List.of("oauth2"))
+            .crudPermission(Permission.Key.COMPANY_OFFICERS)
+            .build();
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private TokenPermissions tokenPermissions;
+
+    private final Map<String, String> headers = new HashMap<>();
+
+    @Test
+    @DisplayName("Tests every stage passes for an authorised external request")
+    void preHandleAuthorised() throws InvalidTokenPermissionException {
+        setupRequest("POST", "user", "oauth2");
+        setupTokenPermissions();
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.CREATE)).thenReturn(true);
+
+        assertTrue(pipeline.preHandle(request, response, HANDLER));
+        verifyNoInteractions(response);
+    }
+
+    @Test
+    @DisplayName("Tests a missing identity is denied before the permissions are checked")
+    void preHandleNoIdentity() throws InvalidTokenPermissionException {
+        setupRequest("GET", null, "oauth2");
+
+        assertFalse(pipeline.preHandle(request, response, HANDLER));
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(pipeline, never()).getTokenPermissionsFromRequest(request);
+        verifyNoInteractions(tokenPermissions);
+    }
+
+    @Test
+    @DisplayName("Tests an identity type not allowed on the external method is forbidden")
+    void preHandleInvalidIdentityType() throws InvalidTokenPermissionException {
+        setupRequest("GET", "user", "other");
+
+        assertFalse(pipeline.preHandle(request, response, HANDLER));
+        verify(response).setStatus(HttpServletResponse.SC_FORBIDDEN);
+        verifyNoInteractions(tokenPermissions);
+    }
+
+    @Test
+    @DisplayName("Tests a non external method requires an internal user")
+    void preHandleInternalMethod() throws InvalidTokenPermissionException {
+        setupRequest("DELETE", "user", SecurityConstants.API_KEY_IDENTITY_TYPE);
+        headers.put(EricConstants.ERIC_AUTHORISED_KEY_ROLES, "other");
+
+        assertFalse(pipeline.preHandle(request, response, HANDLER));
+        verify(response).setStatus(HttpServletResponse.SC_FORBIDDEN);
+    }
+
+    @Test
+    @DisplayName("Tests an internal user passes on a non external method")
+    void preHandleInternalUser() throws InvalidTokenPermissionException {
+        setupRequest("DELETE", "user", SecurityConstants.API_KEY_IDENTITY_TYPE);
+        headers.put(EricConstants.ERIC_AUTHORISED_KEY_ROLES, SecurityConstants.INTERNAL_USER_ROLE);
+        setupTokenPermissions();
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.DELETE)).thenReturn(true);
+
+        assertTrue(pipeline.preHandle(request, response, HANDLER));
+    }
+
+    @Test
+    @DisplayName("Tests a missing permission is unauthorised")
+    void preHandleMissingPermission() throws InvalidTokenPermissionException {
+        setupRequest("GET", "user", "oauth2");
+        setupTokenPermissions();
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.READ)).thenReturn(false);
+
+        assertFalse(pipeline.preHandle(request, response, HANDLER));
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    }
+
+    @Test
+    @DisplayName("Tests the token permissions are parsed from the header and stored when not in the request")
+    void preHandleReadsTokenPermissions() throws InvalidTokenPermissionException {
+        setupRequest("GET", "user", "oauth2");
+        headers.put(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, "company_officers=read");
+        doReturn(Optional.empty()).when(pipeline).getTokenPermissionsFromRequest(request);
+
+        assertTrue(pipeline.preHandle(request, response, HANDLER));
+
+        ArgumentCaptor<TokenPermissions> captor = ArgumentCaptor.forClass(TokenPermissions.class);
+        verify(request).setAttribute(eq(SecurityConstants.TOKEN_PERMISSION_REQUEST_KEY), captor.capture());
+        assertTrue(captor.getValue().hasPermission(Permission.Key.COMPANY_OFFICERS, Value.READ));
+    }
+
+    @Test
+    @DisplayName("Tests the token permissions are read through the cache given to the builder")
+    void preHandleReadsTokenPermissionsThroughCache() throws InvalidTokenPermissionException {
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+        SecurityPipeline cachedPipeline = SecurityPipeline.builder()
+                .tokenPermissionsCache(cache)
+                .crudPermission(Permission.Key.COMPANY_OFFICERS)
+                .build();
+        setupRequest("GET", "user", "oauth2");
+        headers.put(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, "company_officers=read");
+
+        assertTrue(cachedPipeline.preHandle(request, response, HANDLER));
+        assertTrue(cachedPipeline.preHandle(request, response, HANDLER));
+
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, cache.stats().hitCount());
+        verifyNoInteractions(response);
+    }
+
+    @Test
+    @DisplayName("Tests a pipeline without permission stages ignores an invalid token permissions header")
+    void preHandleIdentityOnlyInvalidTokenPermissions() throws InvalidTokenPermissionException {
+        SecurityPipeline identityPipeline = SecurityPipeline.builder()
+                .userAuthentication(List.of("GET"), List.of("oauth2"))
+                .rolePermission("admin")
+                .build();
+        setupRequest("GET", "user", "oauth2");
+        headers.put(EricConstants.ERIC_AUTHORISED_ROLES, "admin");
+        headers.put(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, "company_officers==read");
+
+        assertTrue(identityPipeline.preHandle(request, response, HANDLER));
+        verifyNoInteractions(response);
+    }
+
+    @Test
+    @DisplayName("Tests a permission stage rejects an invalid token permissions header")
+    void preHandleInvalidTokenPermissions() {
+        setupRequest("GET", "user", "oauth2");
+        headers.put(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, "company_officers==read");
+        doReturn(Optional.empty()).when(pipeline).getTokenPermissionsFromRequest(request);
+
+        assertThrows(InvalidTokenPermissionException.class, () -> pipeline.preHandle(request, response, HANDLER));
+    }
+
+    @Test
+    @DisplayName("Tests the role and mapped permission stages")
+    void preHandleRoleAndMappedPermission() throws InvalidTokenPermissionException {
+        SecurityPipeline rolePipeline = SecurityPipeline.builder()
+                .rolePermission("admin")
+                .mappedPermission(Permission.Key.COMPANY_PSCS,
+                        PermissionsMapping.builder().defaultRequireAnyOf(Value.READ, Value.UPDATE).build())
+                .build();
+        setupRequest("GET", "user", "oauth2");
+        headers.put(EricConstants.ERIC_AUTHORISED_ROLES, "user admin");
+        when(request.getAttribute(anyString())).thenAnswer(invocation ->
+                SecurityConstants.TOKEN_PERMISSION_REQUEST_KEY.equals(invocation.getArgument(0)) ? tokenPermissions : null);
+        when(tokenPermissions.hasAnyOf(PermissionSet.of(Permission.Key.COMPANY_PSCS, Value.READ, Value.UPDATE)))
+                .thenReturn(true);
+
+        assertTrue(rolePipeline.preHandle(request, response, HANDLER));
+
+        headers.put(EricConstants.ERIC_AUTHORISED_ROLES, "user");
+        assertFalse(rolePipeline.preHandle(request, response, HANDLER));
+        verify(response).setStatus(HttpServletResponse.SC_FORBIDDEN);
+    }
+
+    @Test
+    @DisplayName("Tests the security context is read once and stored in the request")
+    void preHandleStoresSecurityContext() throws InvalidTokenPermissionException {
+        setupRequest("GET", "user", "oauth2");
+        headers.put(EricConstants.ERIC_AUTHORISED_ROLES, "user admin");
+        setupTokenPermissions();
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.READ)).thenReturn(true);
+
+        assertTrue(pipeline.preHandle(request, response, HANDLER));
+
+        ArgumentCaptor<EricSecurityContext> captor = ArgumentCaptor.forClass(EricSecurityContext.class);
+        verify(request).setAttribute(eq(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY), captor.capture());
+        assertEquals("user", captor.getValue().identity());
+        assertTrue(captor.getValue().hasAuthorisedRole("admin"));
+    }
+
+    @Test
+    @DisplayName("Tests a security context already in the request is used")
+    void preHandleUsesStoredSecurityContext() throws InvalidTokenPermissionException {
+        EricSecurityContext context = new EricSecurityContext("user", "oauth2", null, null, null, tokenPermissions);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAttribute(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY)).thenReturn(context);
+        setupTokenPermissions();
+        when(tokenPermissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Value.READ)).thenReturn(true);
+
+        assertTrue(pipeline.preHandle(request, response, HANDLER));
+        verify(request, never()).getHeader(anyString());
+    }
+
+    @Test
+    @DisplayName("Test postHandle removes the token permissions and security context from the request")
+    void postHandle() throws Exception {
+        pipeline.postHandle(request, response, HANDLER, null);
+
+        verify(request).setAttribute(eq(SecurityConstants.TOKEN_PERMISSION_REQUEST_KEY), isNull());
+        verify(request).setAttribute(eq(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY), isNull());
+    }
+
+    private void setupRequest(String method, String identity, String identityType) {
+        headers.put(EricConstants.ERIC_IDENTITY, identity);
+        headers.put(EricConstants.ERIC_IDENTITY_TYPE, identityType);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getHeader(anyString())).thenAnswer(invocation -> headers.get(invocation.getArgument(0)));
+    }
+
+    private void setupTokenPermissions() {
+        doReturn(Optional.of(tokenPermissions)).when(pipeline).getTokenPermissionsFromRequest(request);
+    }
+}
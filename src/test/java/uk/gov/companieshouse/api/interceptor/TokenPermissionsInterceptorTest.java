@@ -1,7 +1,13 @@
 package uk.gov.companieshouse.api.interceptor;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
@@ -14,12 +20,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import uk.gov.companieshouse.api.util.security.EricConstants;
+import uk.gov.companieshouse.api.util.security.EricSecurityContext;
 import uk.gov.companieshouse.api.util.security.InvalidTokenPermissionException;
+import uk.gov.companieshouse.api.util.security.LazyTokenPermissions;
+import uk.gov.companieshouse.api.util.security.Permission;
+import uk.gov.companieshouse.api.util.security.SecurityConstants;
 import uk.gov.companieshouse.api.util.security.TokenPermissions;
+import uk.gov.companieshouse.api.util.security.TokenPermissionsCache;
 
 @ExtendWith(MockitoExtension.class)
 @TestInstance(Lifecycle.PER_CLASS)
@@ -48,6 +61,21 @@ class TokenPermissionsInterceptorTest {
         verify(request).setAttribute("token_permissions", tokenPermissions);
     }
 
+    @Test
+    @DisplayName("Test that the preHandle method sets an EricSecurityContext holding the TokenPermissions in the request")
+    void preHandleStoresSecurityContext() throws Exception {
+        doReturn(tokenPermissions).when(interceptor).readTokenPermissions(request);
+        when(request.getHeader(anyString())).thenReturn(null);
+        when(request.getHeader(EricConstants.ERIC_IDENTITY)).thenReturn("identity");
+
+        assertTrue(interceptor.preHandle(request, response, HANDLER));
+
+        ArgumentCaptor<EricSecurityContext> captor = ArgumentCaptor.forClass(EricSecurityContext.class);
+        verify(request).setAttribute(eq(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY), captor.capture());
+        assertEquals("identity", captor.getValue().identity());
+        assertSame(tokenPermissions, captor.getValue().tokenPermissions());
+    }
+
     @Test
     @DisplayName("Test that the preHandle method throws an exception when the token permission string is invalid")
     void preHandleThrowsException() throws Exception {
@@ -56,6 +84,33 @@ class TokenPermissionsInterceptorTest {
         assertThrows(InvalidTokenPermissionException.class, () -> interceptor.preHandle(request, response, HANDLER));
     }
 
+    @Test
+    @DisplayName("Test that lazy mode reads a LazyTokenPermissions object")
+    void readLazyTokenPermissions() throws Exception {
+        when(request.getHeader("ERIC-Authorised-Token-Permissions")).thenReturn("user_profile=read");
+
+        TokenPermissions lazyPermissions = new TokenPermissionsInterceptor(true).readTokenPermissions(request);
+
+        assertTrue(lazyPermissions instanceof LazyTokenPermissions);
+        assertTrue(lazyPermissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertFalse(lazyPermissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.UPDATE));
+    }
+
+    @Test
+    @DisplayName("Test that token permissions are read through the given cache")
+    void readTokenPermissionsThroughCache() throws Exception {
+        when(request.getHeader("ERIC-Authorised-Token-Permissions")).thenReturn("user_profile=read");
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+        TokenPermissionsInterceptor cachedInterceptor = new TokenPermissionsInterceptor(cache);
+
+        TokenPermissions first = cachedInterceptor.readTokenPermissions(request);
+        TokenPermissions second = cachedInterceptor.readTokenPermissions(request);
+
+        assertSame(first, second);
+        assertTrue(first.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertEquals(1, cache.stats().hitCount());
+    }
+
     @Test
     @DisplayName("Test that the postHandle method removes the TokenPermissions object from the request")
     void postHandle() throws Exception {
@@ -63,5 +118,6 @@ class TokenPermissionsInterceptorTest {
         interceptor.postHandle(request, response, HANDLER, null);
 
         verify(request).setAttribute("token_permissions", null);
+        verify(request).setAttribute(SecurityConstants.ERIC_SECURITY_CONTEXT_REQUEST_KEY, null);
     }
 }
@@ -0,0 +1,58 @@
+package uk.gov.companieshouse.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void verifiedTokenIsServedUntilItExpires() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        VerifiedTokenCache.TokenHash tokenHash = VerifiedTokenCache.TokenHash.of(TOKEN);
+
+        cache.put(tokenHash, NOW + 1000);
+
+        assertTrue(cache.isVerified(VerifiedTokenCache.TokenHash.of(new String(TOKEN)), NOW));
+        assertFalse(cache.isVerified(tokenHash, NOW + 1000));
+        assertEquals(1, cache.estimatedSize());
+    }
+
+    @Test
+    void unknownTokenIsNotVerified() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put(VerifiedTokenCache.TokenHash.of(TOKEN), NOW + 1000);
+
+        assertFalse(cache.isVerified(VerifiedTokenCache.TokenHash.of(TOKEN + "x"), NOW));
+    }
+
+    @Test
+    void invalidateAllRemovesTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        VerifiedTokenCache.TokenHash tokenHash = VerifiedTokenCache.TokenHash.of(TOKEN);
+        cache.put(tokenHash, NOW + 1000);
+
+        cache.invalidateAll();
+
+        assertFalse(cache.isVerified(tokenHash, NOW));
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void tokenHashIsDerivedFromTheWholeToken() {
+        assertEquals(VerifiedTokenCache.TokenHash.of(TOKEN), VerifiedTokenCache.TokenHash.of(TOKEN));
+        assertNotEquals(VerifiedTokenCache.TokenHash.of(TOKEN), VerifiedTokenCache.TokenHash.of(TOKEN + "x"));
+    }
+
+    @Test
+    void maximumSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new VerifiedTokenCache(0));
+    }
+}
@@ -0,0 +1,91 @@
+package uk.gov.companieshouse.api.util.logging;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import uk.gov.companieshouse.logging.Logger;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityLoggerTest {
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private org.slf4j.Logger levelLogger;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private Supplier<Map<String, Object>> data;
+
+    @Mock
+    private Supplier<String> message;
+
+    private SecurityLogger securityLogger;
+
+    @BeforeEach
+    void setUp() {
+        securityLogger = new SecurityLogger(logger, levelLogger);
+    }
+
+    @Test
+    void debugDisabledBuildsNothing() {
+        when(levelLogger.isDebugEnabled()).thenReturn(false);
+
+        securityLogger.debug("message");
+        securityLogger.debug(message);
+        securityLogger.debugRequest(request, "message");
+        securityLogger.debugRequest(request, message);
+        securityLogger.debugRequest(request, "message", data);
+
+        assertFalse(securityLogger.isDebugEnabled());
+        verifyNoInteractions(logger, data, message);
+    }
+
+    @Test
+    void debugEnabled() {
+        final Map<String, Object> logData = Collections.singletonMap("authorised", true);
+        when(levelLogger.isDebugEnabled()).thenReturn(true);
+        when(data.get()).thenReturn(logData);
+        when(message.get()).thenReturn("supplied");
+
+        securityLogger.debug(message);
+        securityLogger.debugRequest(request, "message", data);
+
+        assertTrue(securityLogger.isDebugEnabled());
+        verify(logger).debug("supplied");
+        verify(logger).debugRequest(request, "message", logData);
+    }
+
+    @Test
+    void errorRequestIsAlwaysLogged() {
+        final Map<String, Object> logData = Collections.emptyMap();
+        final Exception exception = new IllegalStateException();
+
+        securityLogger.error("message", logData);
+        securityLogger.errorRequest(request, "message", logData);
+        securityLogger.errorRequest(request, exception, logData);
+
+        verify(logger).error("message", logData);
+        verify(logger).errorRequest(request, "message", logData);
+        verify(logger).errorRequest(request, exception, logData);
+        verifyNoInteractions(levelLogger);
+    }
+}
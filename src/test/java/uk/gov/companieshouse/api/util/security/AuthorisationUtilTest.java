@@ -2,9 +2,12 @@ package uk.gov.companieshouse.api.util.security;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Optional;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -74,4 +77,36 @@ class AuthorisationUtilTest {
     
         assertFalse(AuthorisationUtil.isOauth2User(httpServletRequest));
     }      
-}
\ No newline at end of file
+
+    @Test
+    void readsServedFromSecurityContext() {
+        MockHttpServletRequest httpServletRequest = new MockHttpServletRequest();
+        httpServletRequest.addHeader(EricConstants.ERIC_IDENTITY, "header");
+        httpServletRequest.addHeader(EricConstants.ERIC_AUTHORISED_ROLES, "/admin/header");
+        EricSecurityContext context = new EricSecurityContext("context", "oauth2", SecurityConstants.INTERNAL_USER_ROLE,
+                List.of("/admin/search"), "user_profile=read", null);
+        EricSecurityContext.storeInRequest(context, httpServletRequest);
+
+        assertEquals("context", AuthorisationUtil.getAuthorisedIdentity(httpServletRequest));
+        assertEquals("oauth2", AuthorisationUtil.getAuthorisedIdentityType(httpServletRequest));
+        assertEquals("user_profile=read", AuthorisationUtil.getAuthorisedTokenPermissions(httpServletRequest));
+        assertTrue(AuthorisationUtil.hasInternalUserRole(httpServletRequest));
+        assertTrue(AuthorisationUtil.isOauth2User(httpServletRequest));
+        assertEquals(List.of("/admin/search"), AuthorisationUtil.getAuthorisedRoles(httpServletRequest));
+        assertSame(context.authorisedRoles(), AuthorisationUtil.getAuthorisedRoles(httpServletRequest));
+        assertThrows(UnsupportedOperationException.class,
+                () -> AuthorisationUtil.getAuthorisedRoles(httpServletRequest).add("/admin/other"));
+        assertTrue(AuthorisationUtil.hasAuthorisedRole(httpServletRequest, "/admin/search"));
+        assertFalse(AuthorisationUtil.hasAuthorisedRole(httpServletRequest, "/admin/header"));
+    }
+
+    @Test
+    void hasAuthorisedRoleFromHeader() {
+        MockHttpServletRequest httpServletRequest = new MockHttpServletRequest();
+        assertFalse(AuthorisationUtil.hasAuthorisedRole(httpServletRequest, "/admin/search"));
+
+        httpServletRequest.addHeader(EricConstants.ERIC_AUTHORISED_ROLES, "/admin/roles /admin/search");
+        assertTrue(AuthorisationUtil.hasAuthorisedRole(httpServletRequest, "/admin/search"));
+        assertFalse(AuthorisationUtil.hasAuthorisedRole(httpServletRequest, "/admin"));
+    }
+}
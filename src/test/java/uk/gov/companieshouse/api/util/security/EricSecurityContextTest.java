@@ -0,0 +1,108 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class EricSecurityContextTest {
+
+    @Test
+    void readHeaders() throws InvalidTokenPermissionException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(EricConstants.ERIC_IDENTITY, "identity");
+        request.addHeader(EricConstants.ERIC_IDENTITY_TYPE, SecurityConstants.API_KEY_IDENTITY_TYPE);
+        request.addHeader(EricConstants.ERIC_AUTHORISED_KEY_ROLES, SecurityConstants.INTERNAL_USER_ROLE);
+        request.addHeader(EricConstants.ERIC_AUTHORISED_ROLES, "/admin/roles /admin/search");
+        request.addHeader(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, "user_profile=read");
+
+        EricSecurityContext context = EricSecurityContext.read(request);
+
+        assertEquals("identity", context.identity());
+        assertTrue(context.isAPIKey());
+        assertTrue(context.hasInternalUserRole());
+        assertFalse(context.isOauth2User());
+        assertEquals(List.of("/admin/roles", "/admin/search"), context.authorisedRoles());
+        assertTrue(context.hasAuthorisedRole("/admin/search"));
+        assertEquals("user_profile=read", context.authorisedTokenPermissions());
+        assertTrue(context.tokenPermissions().hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+    }
+
+    @Test
+    void readMissingHeaders() throws InvalidTokenPermissionException {
+        EricSecurityContext context = EricSecurityContext.read(new MockHttpServletRequest());
+
+        assertEquals(null, context.identity());
+        assertFalse(context.isAPIKey());
+        assertFalse(context.isOauth2User());
+        assertFalse(context.hasInternalUserRole());
+        assertTrue(context.authorisedRoles().isEmpty());
+        assertFalse(context.tokenPermissions().hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+    }
+
+    @Test
+    void readInvalidTokenPermissions() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, "user_profile==read");
+
+        assertThrows(InvalidTokenPermissionException.class, () -> EricSecurityContext.read(request));
+    }
+
+    @Test
+    void readHeadersDefersTokenPermissions() throws InvalidTokenPermissionException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(EricConstants.ERIC_IDENTITY, "identity");
+        request.addHeader(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, "user_profile=read");
+
+        EricSecurityContext context = EricSecurityContext.readHeaders(request);
+
+        assertEquals("identity", context.identity());
+        assertEquals(null, context.tokenPermissions());
+        assertTrue(context.parseTokenPermissions().hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+    }
+
+    @Test
+    void readHeadersInvalidTokenPermissions() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(EricConstants.ERIC_AUTHORISED_TOKEN_PERMISSIONS, "user_profile==read");
+
+        EricSecurityContext context = EricSecurityContext.readHeaders(request);
+
+        assertThrows(InvalidTokenPermissionException.class, context::parseTokenPermissions);
+    }
+
+    @Test
+    void storeInRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        EricSecurityContext context = new EricSecurityContext("identity", "oauth2", null, List.of("role"), null, null);
+
+        EricSecurityContext.storeInRequest(context, request);
+        assertSame(context, EricSecurityContext.getFromRequest(request).orElseThrow());
+
+        EricSecurityContext.storeInRequest(null, request);
+        assertTrue(EricSecurityContext.getFromRequest(request).isEmpty());
+    }
+
+    @Test
+    void rolesAreImmutable() {
+        EricSecurityContext context = new EricSecurityContext(null, null, null, List.of("role"), null, null);
+
+        assertThrows(UnsupportedOperationException.class, () -> context.authorisedRoles().add("other"));
+    }
+
+    @Test
+    void readRolesKeepsDuplicates() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(EricConstants.ERIC_AUTHORISED_ROLES, "/admin/search /admin/roles /admin/search");
+
+        EricSecurityContext context = EricSecurityContext.readHeaders(request);
+
+        assertEquals(List.of("/admin/search", "/admin/roles", "/admin/search"), context.authorisedRoles());
+    }
+}
@@ -0,0 +1,78 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+class IndexedTokenPermissionsTest {
+
+    private static final TokenPermissionsParser PARSER = new TokenPermissionsParser();
+
+    @Test
+    void hasCrudPermissions() throws InvalidTokenPermissionException {
+        IndexedTokenPermissions permissions = parse("user_profile=read,update company_officers=readprotected,delete");
+
+        assertTrue(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertTrue(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.UPDATE));
+        assertFalse(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.CREATE));
+        assertFalse(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.DELETE));
+        assertTrue(permissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Permission.Value.READ_PROTECTED));
+        assertTrue(permissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Permission.Value.DELETE));
+        assertFalse(permissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Permission.Value.READ));
+        assertFalse(permissions.hasPermission(Permission.Key.COMPANY_STATUS, Permission.Value.READ));
+    }
+
+    @Test
+    void hasCrudPermissionWithNonConstantValue() throws InvalidTokenPermissionException {
+        IndexedTokenPermissions permissions = parse("user_profile=read");
+
+        assertTrue(permissions.hasPermission(Permission.Key.USER_PROFILE, new String("read")));
+    }
+
+    @Test
+    void hasOtherValuePermissions() throws InvalidTokenPermissionException {
+        IndexedTokenPermissions permissions = parse("company_number=00001234 acsp_number=AP000001,AP000002");
+
+        assertTrue(permissions.hasPermission(Permission.Key.COMPANY_NUMBER, "00001234"));
+        assertFalse(permissions.hasPermission(Permission.Key.COMPANY_NUMBER, "43210000"));
+        assertTrue(permissions.hasPermission(Permission.Key.ACSP_NUMBER, "AP000002"));
+        assertFalse(permissions.hasPermission(Permission.Key.ACSP_NUMBER, Permission.Value.READ));
+        assertFalse(permissions.hasPermission(Permission.Key.USER_PROFILE, "00001234"));
+        assertFalse(permissions.hasPermission(Permission.Key.COMPANY_NUMBER, null));
+    }
+
+    @Test
+    void ignoresUnknownKeys() throws InvalidTokenPermissionException {
+        IndexedTokenPermissions permissions = parse("unknown_key=read user_profile=read");
+
+        assertTrue(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertEquals("{user_profile=[read]}", permissions.toString());
+    }
+
+    @Test
+    void noPermissions() {
+        IndexedTokenPermissions permissions = new IndexedTokenPermissions(Collections.emptyMap());
+
+        assertFalse(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertEquals("{}", permissions.toString());
+    }
+
+    @Test
+    void valueToMask() {
+        assertEquals(Permission.Value.CREATE_MASK, Permission.Value.toMask(Permission.Value.CREATE));
+        assertEquals(Permission.Value.READ_MASK, Permission.Value.toMask(new String("read")));
+        assertEquals(Permission.Value.READ_PROTECTED_MASK, Permission.Value.toMask(Permission.Value.READ_PROTECTED));
+        assertEquals(Permission.Value.UPDATE_MASK, Permission.Value.toMask(Permission.Value.UPDATE));
+        assertEquals(Permission.Value.DELETE_MASK, Permission.Value.toMask(Permission.Value.DELETE));
+        assertEquals(0, Permission.Value.toMask("00001234"));
+        assertEquals(0, Permission.Value.toMask(null));
+    }
+
+    private static IndexedTokenPermissions parse(String header) throws InvalidTokenPermissionException {
+        return new IndexedTokenPermissions(PARSER.parse(header));
+    }
+}
@@ -0,0 +1,69 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LazyTokenPermissionsTest {
+
+    private static final String AUTHORISED_TOKEN_PERMISSIONS = "company_number=00001234 company_transactions=read user_profile=read user_transactions=read,create,update company_officers=delete,readprotected,update,create acsp_number=AP000001,AP000002";
+
+    @Test
+    void hasCrudPermissions() throws InvalidTokenPermissionException {
+        LazyTokenPermissions permissions = lazy(AUTHORISED_TOKEN_PERMISSIONS);
+
+        assertTrue(permissions.hasPermission(Permission.Key.USER_TRANSACTIONS, Permission.Value.CREATE));
+        assertTrue(permissions.hasPermission(Permission.Key.USER_TRANSACTIONS, Permission.Value.UPDATE));
+        assertFalse(permissions.hasPermission(Permission.Key.USER_TRANSACTIONS, Permission.Value.DELETE));
+        assertTrue(permissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Permission.Value.READ_PROTECTED));
+        assertFalse(permissions.hasPermission(Permission.Key.COMPANY_OFFICERS, Permission.Value.READ));
+        assertTrue(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertFalse(permissions.hasPermission(Permission.Key.COMPANY_ROA, Permission.Value.READ));
+    }
+
+    @Test
+    void keyIsNotMatchedByPrefix() throws InvalidTokenPermissionException {
+        LazyTokenPermissions permissions = lazy("company_transactions=read");
+
+        assertFalse(permissions.hasPermission(Permission.Key.USER_TRANSACTIONS, Permission.Value.READ));
+        assertTrue(permissions.hasPermission(Permission.Key.COMPANY_TRANSACTIONS, Permission.Value.READ));
+    }
+
+    @Test
+    void hasOtherValuePermissions() throws InvalidTokenPermissionException {
+        LazyTokenPermissions permissions = lazy(AUTHORISED_TOKEN_PERMISSIONS);
+
+        assertTrue(permissions.hasPermission(Permission.Key.COMPANY_NUMBER, "00001234"));
+        assertFalse(permissions.hasPermission(Permission.Key.COMPANY_NUMBER, "43210000"));
+        assertTrue(permissions.hasPermission(Permission.Key.ACSP_NUMBER, "AP000001"));
+        assertTrue(permissions.hasPermission(Permission.Key.ACSP_NUMBER, "AP000002"));
+        assertFalse(permissions.hasPermission(Permission.Key.ACSP_NUMBER, null));
+    }
+
+    @Test
+    void repeatedChecksUseMemoisedValues() throws InvalidTokenPermissionException {
+        LazyTokenPermissions permissions = lazy(AUTHORISED_TOKEN_PERMISSIONS);
+
+        assertTrue(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertTrue(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertFalse(permissions.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.UPDATE));
+    }
+
+    @Test
+    void blankHeaderHasNoPermissions() throws InvalidTokenPermissionException {
+        assertFalse(lazy(null).hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertFalse(lazy(" ").hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+    }
+
+    @Test
+    void invalidHeaderIsRejectedUpFront() {
+        assertThrows(InvalidTokenPermissionException.class, () -> lazy("user_profile=read user_transactions="));
+        assertThrows(InvalidTokenPermissionException.class, () -> lazy("user_profile=read user_profile=update"));
+    }
+
+    private static LazyTokenPermissions lazy(String header) throws InvalidTokenPermissionException {
+        return new LazyTokenPermissions(header, TokenPermissionsParser.getDefault());
+    }
+}
@@ -0,0 +1,102 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PermissionKeyRegistryTest {
+
+    @Test
+    void builtInKeysUseTheirOrdinal() {
+        for (Permission.Key key : Permission.Key.values()) {
+            assertEquals(key.ordinal(), PermissionKeyRegistry.getId(key.toString()));
+            assertEquals(key.toString(), PermissionKeyRegistry.getName(key.ordinal()));
+            assertSame(key, Permission.Key.fromString(key.toString()));
+        }
+        assertTrue(PermissionKeyRegistry.size() >= Permission.Key.values().length);
+    }
+
+    @Test
+    void unknownNames() {
+        assertEquals(PermissionKeyRegistry.UNKNOWN, PermissionKeyRegistry.getId("not_registered"));
+        assertEquals(PermissionKeyRegistry.UNKNOWN, PermissionKeyRegistry.getId("user_profil"));
+        assertEquals(PermissionKeyRegistry.UNKNOWN, PermissionKeyRegistry.getId(""));
+        assertEquals(PermissionKeyRegistry.UNKNOWN, PermissionKeyRegistry.getId(null));
+        assertNull(Permission.Key.fromString("not_registered"));
+    }
+
+    @Test
+    void registerKey() {
+        final int id = PermissionKeyRegistry.register("registry_test_key");
+
+        assertTrue(id >= Permission.Key.values().length);
+        assertEquals(id, PermissionKeyRegistry.register("registry_test_key"));
+        assertEquals(id, PermissionKeyRegistry.getId("registry_test_key"));
+        assertEquals("registry_test_key", PermissionKeyRegistry.getName(id));
+        assertNull(Permission.Key.fromString("registry_test_key"));
+        assertEquals(Permission.Key.USER_PROFILE.ordinal(), PermissionKeyRegistry.register("user_profile"));
+    }
+
+    @Test
+    void registerKeysWithSameHashCode() {
+        final int aa = PermissionKeyRegistry.register("Aa");
+        final int bb = PermissionKeyRegistry.register("BB");
+        final int b0 = PermissionKeyRegistry.register("b0");
+        final int aO = PermissionKeyRegistry.register("aO");
+
+        assertEquals(aa, PermissionKeyRegistry.getId("Aa"));
+        assertEquals(bb, PermissionKeyRegistry.getId("BB"));
+        assertEquals(b0, PermissionKeyRegistry.getId("b0"));
+        assertEquals(aO, PermissionKeyRegistry.getId("aO"));
+        assertEquals(4, Set.of(aa, bb, b0, aO).size());
+    }
+
+    @Test
+    void resolveFromPartOfString() {
+        final String header = "user_profile=read company_number=00001234";
+
+        assertEquals(Permission.Key.USER_PROFILE.ordinal(), PermissionKeyRegistry.getId(header, 0, 12));
+        assertEquals(Permission.Key.COMPANY_NUMBER.ordinal(), PermissionKeyRegistry.getId(header, 18, 32));
+        assertEquals(PermissionKeyRegistry.UNKNOWN, PermissionKeyRegistry.getId(header, 0, 11));
+    }
+
+    @Test
+    void registeredKeysCanBeChecked() throws InvalidTokenPermissionException {
+        final int id = PermissionKeyRegistry.register("registry_checked_key");
+        final String header = "registry_checked_key=read,00001234 user_profile=read";
+
+        TokenPermissions indexed = new TokenPermissionsImpl(header, TokenPermissionsParser.getDefault());
+        TokenPermissions lazy = new LazyTokenPermissions(header, TokenPermissionsParser.getDefault());
+
+        for (TokenPermissions tokenPermissions : new TokenPermissions[] {indexed, lazy}) {
+            assertTrue(tokenPermissions.hasPermission(id, Permission.Value.READ));
+            assertTrue(tokenPermissions.hasPermission(id, "00001234"));
+            assertFalse(tokenPermissions.hasPermission(id, Permission.Value.UPDATE));
+            assertTrue(tokenPermissions.hasPermission(Permission.Key.USER_PROFILE.ordinal(), Permission.Value.READ));
+            assertFalse(tokenPermissions.hasPermission(PermissionKeyRegistry.UNKNOWN, Permission.Value.READ));
+        }
+    }
+
+    @Test
+    void defaultMethodOnlyKnowsBuiltInKeys() {
+        final int id = PermissionKeyRegistry.register("registry_default_key");
+        TokenPermissions tokenPermissions = (key, value) -> true;
+
+        assertTrue(tokenPermissions.hasPermission(Permission.Key.USER_PROFILE.ordinal(), Permission.Value.READ));
+        assertFalse(tokenPermissions.hasPermission(id, Permission.Value.READ));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "with space", "with=equals", "with,comma"})
+    void invalidNames(String name) {
+        assertThrows(IllegalArgumentException.class, () -> PermissionKeyRegistry.register(name));
+    }
+}
@@ -0,0 +1,88 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PermissionPolicyTest {
+
+    private static final String POLICY =
+            "company_officers=update OR (company_pscs=update AND company_status=read)";
+
+    private static TokenPermissions permissions(String header) throws InvalidTokenPermissionException {
+        return new TokenPermissionsImpl(header, TokenPermissionsParser.getDefault());
+    }
+
+    @Test
+    void orOfAnd() throws Exception {
+        PermissionPolicy policy = PermissionPolicy.compile(POLICY);
+
+        assertTrue(policy.test(permissions("company_officers=update"), "POST", "oauth2"));
+        assertTrue(policy.test(permissions("company_pscs=update company_status=read"), "POST", "oauth2"));
+        assertFalse(policy.test(permissions("company_pscs=update"), "POST", "oauth2"));
+        assertFalse(policy.test(permissions("company_status=read"), "POST", "oauth2"));
+        assertFalse(policy.test(permissions(""), "POST", "oauth2"));
+        assertEquals(POLICY, policy.toString());
+    }
+
+    @Test
+    void sameKeyConditionsAreCombined() throws Exception {
+        PermissionPolicy allOf = PermissionPolicy.compile("user_profile=read AND user_profile=update");
+        PermissionPolicy anyOf = PermissionPolicy.compile("user_profile=read OR user_profile=update");
+
+        assertTrue(allOf.test(permissions("user_profile=read,update"), "GET", null));
+        assertFalse(allOf.test(permissions("user_profile=read"), "GET", null));
+        assertTrue(anyOf.test(permissions("user_profile=update"), "GET", null));
+        assertFalse(anyOf.test(permissions("user_profile=delete"), "GET", null));
+    }
+
+    @Test
+    void valueList() throws Exception {
+        PermissionPolicy policy = PermissionPolicy.compile("company_number=00001234,00006400");
+
+        assertTrue(policy.test(permissions("company_number=00006400"), "GET", null));
+        assertFalse(policy.test(permissions("company_number=00000001"), "GET", null));
+    }
+
+    @Test
+    void methodAndIdentityType() throws Exception {
+        PermissionPolicy policy = PermissionPolicy.compile(
+                "(method=get,head AND identity_type=key) OR NOT identity_type=key AND user_profile=read");
+
+        assertTrue(policy.test(permissions(""), "GET", "key"));
+        assertFalse(policy.test(permissions(""), "POST", "key"));
+        assertTrue(policy.test(permissions("user_profile=read"), "POST", "oauth2"));
+        assertFalse(policy.test(permissions("user_profile=read"), "POST", "key"));
+        assertFalse(policy.test(permissions(""), "GET", null));
+    }
+
+    @Test
+    void operatorsAreCaseInsensitive() throws Exception {
+        PermissionPolicy policy = PermissionPolicy.compile("not user_profile=delete and user_profile=read");
+
+        assertTrue(policy.test(permissions("user_profile=read"), "GET", null));
+        assertFalse(policy.test(permissions("user_profile=read,delete"), "GET", null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "user_profile",
+            "user_profile=",
+            "unknown_key=read",
+            "user_profile=read AND",
+            "user_profile=read OR OR user_profile=update",
+            "(user_profile=read",
+            "user_profile=read)",
+            "user_profile=read user_profile=update",
+            "user_profile=and"
+    })
+    void invalidPolicy(String expression) {
+        assertThrows(IllegalArgumentException.class, () -> PermissionPolicy.compile(expression));
+    }
+}
@@ -0,0 +1,92 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PermissionSetTest {
+
+    private static final String HEADER = "user_profile=read,update company_number=00001234";
+
+    @Test
+    void buildSet() {
+        PermissionSet permissionSet = PermissionSet.of(Permission.Key.USER_PROFILE,
+                Permission.Value.READ, Permission.Value.UPDATE, "other");
+
+        assertEquals(Permission.Key.USER_PROFILE, permissionSet.getKey());
+        assertEquals(Arrays.asList("read", "update", "other"), new ArrayList<>(permissionSet.getValues()));
+        assertEquals(Permission.Value.READ_MASK | Permission.Value.UPDATE_MASK, permissionSet.getMask());
+        assertFalse(permissionSet.isEmpty());
+        assertEquals("user_profile=[read, update, other]", permissionSet.toString());
+        assertEquals(permissionSet, PermissionSet.of(Permission.Key.USER_PROFILE,
+                Arrays.asList("other", "update", "read")));
+    }
+
+    @Test
+    void invalidSet() {
+        assertThrows(NullPointerException.class, () -> PermissionSet.of(null, Permission.Value.READ));
+        assertThrows(IllegalArgumentException.class,
+                () -> PermissionSet.of(Permission.Key.USER_PROFILE, Permission.Value.READ, null));
+    }
+
+    @Test
+    void defaultHasAnyOfShortCircuits() {
+        List<String> checked = new ArrayList<>();
+        TokenPermissions tokenPermissions = (key, value) -> {
+            checked.add(value);
+            return Permission.Value.CREATE.equals(value);
+        };
+
+        assertTrue(tokenPermissions.hasAnyOf(PermissionSet.of(Permission.Key.USER_PROFILE,
+                Permission.Value.CREATE, Permission.Value.READ)));
+        assertEquals(Collections.singletonList(Permission.Value.CREATE), checked);
+        assertFalse(tokenPermissions.hasAnyOf(PermissionSet.of(Permission.Key.USER_PROFILE)));
+    }
+
+    @Test
+    void defaultHasAllOf() {
+        TokenPermissions tokenPermissions = (key, value) -> Permission.Value.CREATE.equals(value);
+
+        assertTrue(tokenPermissions.hasAllOf(PermissionSet.of(Permission.Key.USER_PROFILE, Permission.Value.CREATE)));
+        assertFalse(tokenPermissions.hasAllOf(PermissionSet.of(Permission.Key.USER_PROFILE,
+                Permission.Value.CREATE, Permission.Value.READ)));
+        assertTrue(tokenPermissions.hasAllOf(PermissionSet.of(Permission.Key.USER_PROFILE)));
+    }
+
+    @Test
+    void indexedBatchChecks() throws InvalidTokenPermissionException {
+        assertBatchChecks(new TokenPermissionsImpl(HEADER, TokenPermissionsParser.getDefault()));
+    }
+
+    @Test
+    void lazyBatchChecks() throws InvalidTokenPermissionException {
+        assertBatchChecks(new LazyTokenPermissions(HEADER, TokenPermissionsParser.getDefault()));
+    }
+
+    private static void assertBatchChecks(TokenPermissions tokenPermissions) {
+        assertTrue(tokenPermissions.hasAnyOf(PermissionSet.of(Permission.Key.USER_PROFILE,
+                Permission.Value.CREATE, Permission.Value.UPDATE)));
+        assertFalse(tokenPermissions.hasAnyOf(PermissionSet.of(Permission.Key.USER_PROFILE,
+                Permission.Value.CREATE, Permission.Value.DELETE)));
+        assertTrue(tokenPermissions.hasAllOf(PermissionSet.of(Permission.Key.USER_PROFILE,
+                Permission.Value.READ, Permission.Value.UPDATE)));
+        assertFalse(tokenPermissions.hasAllOf(PermissionSet.of(Permission.Key.USER_PROFILE,
+                Permission.Value.READ, Permission.Value.DELETE)));
+        assertTrue(tokenPermissions.hasAnyOf(PermissionSet.of(Permission.Key.COMPANY_NUMBER,
+                "43210000", "00001234")));
+        assertFalse(tokenPermissions.hasAllOf(PermissionSet.of(Permission.Key.COMPANY_NUMBER,
+                "43210000", "00001234")));
+        assertTrue(tokenPermissions.hasAllOf(PermissionSet.of(Permission.Key.COMPANY_NUMBER, "00001234")));
+        assertFalse(tokenPermissions.hasAnyOf(PermissionSet.of(Permission.Key.COMPANY_STATUS, Permission.Value.READ)));
+        assertFalse(tokenPermissions.hasAnyOf(PermissionSet.of(Permission.Key.USER_PROFILE)));
+        assertTrue(tokenPermissions.hasAllOf(PermissionSet.of(Permission.Key.COMPANY_STATUS)));
+    }
+}
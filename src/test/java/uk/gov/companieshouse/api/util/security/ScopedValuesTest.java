@@ -0,0 +1,47 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ScopedValuesTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 5, 32, 33, 500})
+    void containsAllValuesOnly(int size) {
+        List<String> values = companyNumbers(size);
+
+        ScopedValues scopedValues = ScopedValues.of(values);
+
+        for (String value : values) {
+            assertTrue(scopedValues.contains(new String(value)));
+        }
+        assertFalse(scopedValues.contains("99999999"));
+        assertFalse(scopedValues.contains(null));
+        assertEquals(values, scopedValues.toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {ScopedValues.INLINE_MAX, ScopedValues.SORTED_MAX})
+    void storageAdaptsToSize(int size) {
+        String smaller = ScopedValues.of(companyNumbers(size)).getClass().getSimpleName();
+        String larger = ScopedValues.of(companyNumbers(size + 1)).getClass().getSimpleName();
+
+        assertNotEquals(smaller, larger);
+    }
+
+    private static List<String> companyNumbers(int size) {
+        List<String> values = new ArrayList<>();
+        for (int i = size; i > 0; i--) {
+            values.add(String.format("%08d", i * 7));
+        }
+        return values;
+    }
+}
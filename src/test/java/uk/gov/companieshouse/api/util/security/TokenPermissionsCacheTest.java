@@ -0,0 +1,87 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TokenPermissionsCacheTest {
+
+    private static final String HEADER = "company_number=00001234 user_profile=read";
+
+    @Test
+    void repeatHeaderIsServedFromCache() throws InvalidTokenPermissionException {
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+
+        TokenPermissions first = cache.get(HEADER);
+        TokenPermissions second = cache.get(new String(HEADER));
+
+        assertSame(first, second);
+        assertTrue(first instanceof TokenPermissionsImpl);
+        assertTrue(first.hasPermission(Permission.Key.COMPANY_NUMBER, "00001234"));
+        assertTrue(first.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, cache.estimatedSize());
+    }
+
+    @Test
+    void differentHeadersAreCachedSeparately() throws InvalidTokenPermissionException {
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+
+        TokenPermissions first = cache.get(HEADER);
+        TokenPermissions second = cache.get("user_profile=update");
+
+        assertNotSame(first, second);
+        assertFalse(second.hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    void invalidHeaderIsNotCached() {
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+
+        assertThrows(InvalidTokenPermissionException.class, () -> cache.get("invalid"));
+        assertThrows(InvalidTokenPermissionException.class, () -> cache.get("invalid"));
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void blankHeaderHasNoPermissions() throws InvalidTokenPermissionException {
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+
+        assertFalse(cache.get((String) null).hasPermission(Permission.Key.USER_PROFILE, Permission.Value.READ));
+        assertSame(cache.get((String) null), cache.get(""));
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void invalidateAll() throws InvalidTokenPermissionException {
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+        cache.get(HEADER);
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void cachesAreIndependent() throws InvalidTokenPermissionException {
+        TokenPermissionsCache cache = new TokenPermissionsCache(10);
+        TokenPermissionsCache other = new TokenPermissionsCache(10);
+
+        cache.get(HEADER);
+
+        assertEquals(1, cache.estimatedSize());
+        assertEquals(0, other.estimatedSize());
+    }
+
+    @Test
+    void invalidMaximumSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenPermissionsCache(0));
+    }
+}
@@ -0,0 +1,118 @@
+package uk.gov.companieshouse.api.util.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TokenPermissionsParserTest {
+
+    private final TokenPermissionsParser parser = new TokenPermissionsParser();
+
+    @Test
+    void parseMultipleKeysAndValues() throws InvalidTokenPermissionException {
+        Map<String, List<String>> permissions =
+                parser.parse("company_number=00001234 user_transactions=read,create,update user_profile=read");
+
+        assertEquals(3, permissions.size());
+        assertEquals(Collections.singletonList("00001234"), permissions.get("company_number"));
+        assertEquals(Arrays.asList("read", "create", "update"), permissions.get("user_transactions"));
+        assertEquals(Collections.singletonList("read"), permissions.get("user_profile"));
+    }
+
+    @Test
+    void parseBlankHeader() throws InvalidTokenPermissionException {
+        assertTrue(parser.parse(null).isEmpty());
+        assertTrue(parser.parse("").isEmpty());
+        assertTrue(parser.parse("   ").isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "invalid",
+            "user_profile=",
+            "=read",
+            "user_profile=read ",
+            " user_profile=read",
+            "user_profile=read  company_status=read",
+            "user_profile=read,",
+            "user_profile=,read",
+            "user_profile=read,,update",
+            "user_profile==read",
+            "user_profile=read=update",
+            "user-profile=read",
+            "user_profile=read\tcompany_status=read",
+            "user_profile=read user_transactions= company_auth_code=read,update,delete"
+    })
+    void parseInvalidHeader(String header) {
+        assertThrows(InvalidTokenPermissionException.class, () -> parser.parse(header));
+        assertThrows(InvalidTokenPermissionException.class, () -> parser.validate(header));
+    }
+
+    @Test
+    void validateValidHeader() throws InvalidTokenPermissionException {
+        parser.validate(null);
+        parser.validate("company_number=00001234 user_transactions=read,create,update user_profile=read");
+    }
+
+    @Test
+    void validateManyKeys() throws InvalidTokenPermissionException {
+        StringBuilder header = new StringBuilder("k0=read");
+        for (int i = 1; i < 100; i++) {
+            header.append(" k").append(i).append("=read");
+        }
+        parser.validate(header.toString());
+
+        header.append(" k42=update");
+        assertThrows(InvalidTokenPermissionException.class, () -> parser.validate(header.toString()));
+    }
+
+    @Test
+    void validateKeysWithSameHash() throws InvalidTokenPermissionException {
+        // "Aa" and "BB" have the same hash code
+        parser.validate("Aa=read BB=read AaAa=read BBBB=read AaBB=read BBAa=read");
+
+        assertThrows(InvalidTokenPermissionException.class, () -> parser.validate("Aa=read BB=read Aa=update"));
+    }
+
+    @Test
+    void indexOfValues() {
+        String header = "company_transactions=read user_transactions=read,create company_number=00001234";
+
+        assertEquals(21, TokenPermissionsParser.indexOfValues(header, "company_transactions"));
+        assertEquals(44, TokenPermissionsParser.indexOfValues(header, "user_transactions"));
+        assertEquals(71, TokenPermissionsParser.indexOfValues(header, "company_number"));
+        assertEquals(-1, TokenPermissionsParser.indexOfValues(header, "transactions"));
+        assertEquals(-1, TokenPermissionsParser.indexOfValues(header, "user_profile"));
+    }
+
+    @Test
+    void parseDuplicateKey() {
+        assertThrows(InvalidTokenPermissionException.class,
+                () -> parser.parse("user_profile=read user_profile=update"));
+        assertThrows(InvalidTokenPermissionException.class,
+                () -> parser.validate("user_profile=read user_profile=update"));
+    }
+
+    @Test
+    void parseHeaderOverMaximumLength() throws InvalidTokenPermissionException {
+        TokenPermissionsParser shortParser = new TokenPermissionsParser(17);
+
+        assertEquals(1, shortParser.parse("user_profile=read").size());
+        assertThrows(InvalidTokenPermissionException.class,
+                () -> shortParser.parse("user_profile=read,update"));
+    }
+
+    @Test
+    void invalidMaximumLength() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenPermissionsParser(0));
+    }
+}